@@ -3,12 +3,14 @@ package com.gamer_waves.slackbridge;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.regex.Pattern;
 
@@ -22,28 +24,59 @@ import com.slack.api.bolt.AppConfig;
 import com.slack.api.bolt.socket_mode.SocketModeApp;
 import com.slack.api.methods.SlackApiException;
 import com.slack.api.methods.response.users.UsersInfoResponse;
+import com.slack.api.model.User;
 import com.slack.api.model.event.MessageBotEvent;
+import com.slack.api.model.event.MessageChangedEvent;
+import com.slack.api.model.event.MessageDeletedEvent;
 import com.slack.api.model.event.MessageEvent;
+import com.slack.api.model.event.UserChangeEvent;
 import com.slack.api.model.block.LayoutBlock;
-import com.slack.api.model.block.SectionBlock;
-import com.slack.api.model.block.composition.MarkdownTextObject;
-import com.slack.api.model.block.element.ImageElement;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.Random;
+import java.util.Locale;
 import java.util.UUID;
-import java.util.regex.Matcher;
 
 import net.fabricmc.api.ModInitializer;
 import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
 import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
+import net.minecraft.network.packet.s2c.common.ResourcePackSendS2CPacket;
 import net.minecraft.server.MinecraftServer;
+import net.minecraft.text.MutableText;
 import net.minecraft.text.Text;
+import net.minecraft.util.Formatting;
+import com.gamer_waves.slackbridge.chat.MentionEngine;
+import com.gamer_waves.slackbridge.chat.MrkdwnConverter;
+import com.gamer_waves.slackbridge.commands.EmojiSyncCommand;
+import com.gamer_waves.slackbridge.commands.HistoryCommand;
 import com.gamer_waves.slackbridge.commands.UnlinkCommand;
+import com.gamer_waves.slackbridge.emoji.PackHash;
+import com.gamer_waves.slackbridge.history.MessageJournal;
+import com.gamer_waves.slackbridge.inbound.AwayDigest;
+import com.gamer_waves.slackbridge.inbound.DeliveryCursor;
+import com.gamer_waves.slackbridge.inbound.EventDedup;
+import com.gamer_waves.slackbridge.inbound.InboundBroadcaster;
+import com.gamer_waves.slackbridge.inbound.InboundSequencer;
+import com.gamer_waves.slackbridge.inbound.SlackUserCache;
+import com.gamer_waves.slackbridge.inbound.ThreadCache;
+import com.gamer_waves.slackbridge.links.LinkCodeStore;
+import com.gamer_waves.slackbridge.links.LinkIndex;
+import com.gamer_waves.slackbridge.links.LinkStore;
+import com.gamer_waves.slackbridge.outbound.ChatThrottle;
+import com.gamer_waves.slackbridge.outbound.ConnectionSupervisor;
+import com.gamer_waves.slackbridge.outbound.Lane;
+import com.gamer_waves.slackbridge.outbound.MethodTier;
+import com.gamer_waves.slackbridge.outbound.OutboundDispatcher;
+import com.gamer_waves.slackbridge.outbound.OutboundMessage;
+import com.gamer_waves.slackbridge.outbound.Outbox;
+import com.gamer_waves.slackbridge.outbound.OverflowPolicy;
+import com.gamer_waves.slackbridge.outbound.PresenceAggregator;
+import com.gamer_waves.slackbridge.outbound.SlackCallScheduler;
+import com.gamer_waves.slackbridge.status.PlayerSnapshot;
+import com.gamer_waves.slackbridge.status.StatusBlocks;
+import com.gamer_waves.slackbridge.util.LruCache;
 
 public class SlackBridge implements ModInitializer {
     public static final String MOD_ID = "slackbridge";
@@ -56,49 +89,157 @@ public class SlackBridge implements ModInitializer {
     private static App slackApp;
     private static final AtomicBoolean slackInitialized = new AtomicBoolean(false);
     
-    private static com.gamer_waves.slackbridge.emoji.ResourcePackServer resourcePackServer;
+    private static volatile com.gamer_waves.slackbridge.emoji.ResourcePackServer resourcePackServer;
     private static com.gamer_waves.slackbridge.emoji.EmoggEmojiDownloader emojiDownloader;
+    private static final SlackCallScheduler slackScheduler = new SlackCallScheduler();
+    private static OutboundDispatcher outboundDispatcher;
+    private static ConnectionSupervisor connectionSupervisor;
+    private static Outbox outbox;
+    private static MessageJournal messageJournal;
+    private static SlackUserCache userCache;
+    private static ThreadCache threadCache;
+    private static final MentionEngine mentionEngine = new MentionEngine();
+    private static final LruCache<String, String> channelNames = new LruCache<>(256, 60 * 60_000L, false);
+    private static ChatThrottle chatThrottle;
+    private static PresenceAggregator presenceAggregator;
 
     private static Config currentConfig = null;
     private static final String CONFIG_DIR = "config";
     private static final String CONFIG_FILE = "slackbridge.json";
     private static final String LINKS_FILE = "slackbridge_links.json";
-
-    private static final Queue<String> pendingMessages = new ConcurrentLinkedQueue<>();
+    private static final String OUTBOX_DIR = "slackbridge_outbox";
+    private static final String CURSOR_FILE = "slackbridge_cursor.txt";
+    private static final String HISTORY_DIR = "slackbridge_history";
+    private static final int BACKFILL_PREVIEW_CHARS = 150;
+    private static final int CACHE_SWEEP_INTERVAL_TICKS = 1200; // 1 minute
+    private static final UUID EMOJI_PACK_ID = UUID.nameUUIDFromBytes("slackbridge:emogg_emoji".getBytes(StandardCharsets.UTF_8));
+
+    private static InboundBroadcaster inboundBroadcaster;
+    private static InboundSequencer<Text> inboundSequencer;
+    private static EventDedup eventDedup;
+    private static DeliveryCursor deliveryCursor;
+    private static final StatusBlocks statusBlocks = new StatusBlocks();
     private static AccountLinks accountLinks = null;
-    private static final Map<String, LinkCodeData> pendingLinkCodes = new HashMap<>();
-    private static final Random random = new Random();
     private static final int CODE_EXPIRY_SECONDS = 300; // 5 minutes
-
-    private static class LinkCodeData {
-        String uuid;
-        String username;
-        long expiryTime;
-
-        LinkCodeData(String uuid, String username, long expiryTime) {
-            this.uuid = uuid;
-            this.username = username;
-            this.expiryTime = expiryTime;
-        }
-
-        boolean isExpired() {
-            return System.currentTimeMillis() > expiryTime;
-        }
-    }
+    private static final int MAX_PENDING_LINK_CODES = 10_000;
+    private static final LinkCodeStore pendingLinkCodes = new LinkCodeStore(CODE_EXPIRY_SECONDS * 1000L, MAX_PENDING_LINK_CODES);
 
     @Override
     public void onInitialize() {
         ServerLifecycleEvents.SERVER_STARTED.register(server -> {
             currentServer = server;
-            server.execute(() -> {
-                while (!pendingMessages.isEmpty()) {
-                    server.getPlayerManager().broadcast(Text.literal(pendingMessages.poll()), false);
-                }
-            });
         });
 
         currentConfig = Config.loadConfig();
+        inboundBroadcaster = new InboundBroadcaster(
+            currentConfig.inbound_buffer_capacity,
+            currentConfig.inbound_max_chars_per_tick,
+            currentConfig.inbound_max_age_seconds * 1000L
+        );
+        inboundSequencer = new InboundSequencer<>(
+            currentConfig.inbound_buffer_capacity,
+            currentConfig.inbound_reorder_window_ms,
+            currentConfig.inbound_reorder_max_wait_ms,
+            (ts, text) -> broadcastToMinecraft(text, ts)
+        );
+        eventDedup = new EventDedup(currentConfig.inbound_dedup_window);
+        deliveryCursor = DeliveryCursor.open(Paths.get(CONFIG_DIR, CURSOR_FILE));
+
+        // Everything Slack sent since the last tick goes out as one broadcast
+        ServerTickEvents.END_SERVER_TICK.register(server -> {
+            inboundSequencer.releaseReady();
+            Text merged = inboundBroadcaster.drain();
+            if (merged != null) {
+                server.getPlayerManager().broadcast(merged, false);
+            }
+            deliveryCursor.advance(inboundBroadcaster.deliveredTs());
+            if (server.getTicks() % 100 == 0) {
+                deliveryCursor.save();
+            }
+            if (server.getTicks() % Math.max(1, currentConfig.player_snapshot_interval_ticks) == 0) {
+                publishPlayerSnapshot(server);
+            }
+            if (server.getTicks() % CACHE_SWEEP_INTERVAL_TICKS == 0) {
+                userCache.purgeExpired();
+                threadCache.purgeIdle();
+            }
+        });
         accountLinks = AccountLinks.loadLinks();
+        userCache = new SlackUserCache(
+            currentConfig.user_cache_size,
+            currentConfig.user_cache_ttl_minutes * 60_000L,
+            SlackBridge::fetchDisplayName
+        );
+        threadCache = new ThreadCache(currentConfig.thread_cache_size, currentConfig.thread_cache_idle_minutes * 60_000L);
+
+        try {
+            outbox = Outbox.open(Paths.get(CONFIG_DIR, OUTBOX_DIR));
+        } catch (IOException e) {
+            LOGGER.error("Failed to open Slack outbox, outbound messages will not survive restarts", e);
+        }
+        try {
+            messageJournal = MessageJournal.open(Paths.get(CONFIG_DIR, HISTORY_DIR),
+                currentConfig.history_retention_days * 24L * 60 * 60 * 1000);
+        } catch (IOException e) {
+            LOGGER.error("Failed to open message history, edits and /slackhistory will be unavailable", e);
+        }
+
+        connectionSupervisor = new ConnectionSupervisor(
+            () -> slackApp != null && slackScheduler.call(MethodTier.TIER_4, () -> slackApp.client().authTest(r -> r)).isOk(),
+            () -> socket == null || socket.getClient().verifyConnection(),
+            () -> {
+                socket.getClient().connectToNewEndpoint();
+                return socket.getClient().verifyConnection();
+            }
+        );
+        connectionSupervisor.start();
+
+        outboundDispatcher = new OutboundDispatcher(
+            currentConfig.outbound_queue_capacity,
+            OverflowPolicy.parse(currentConfig.outbound_overflow_policy),
+            currentConfig.outbound_block_timeout_ms,
+            slackScheduler,
+            connectionSupervisor,
+            SlackBridge::postToSlack,
+            message -> {
+                if (outbox != null) outbox.ack(message);
+            },
+            message -> {
+                if (outbox != null) outbox.spill(message);
+            },
+            max -> outbox != null ? outbox.refill(max) : List.of()
+        );
+        replayOutbox();
+        outboundDispatcher.start();
+        chatThrottle = new ChatThrottle(currentConfig.chat_player_burst, currentConfig.chat_player_messages_per_minute);
+        presenceAggregator = new PresenceAggregator(
+            currentConfig.presence_digest_window_seconds * 1000L,
+            SlackBridge::submitOutbound
+        );
+
+        // Give queued leave messages a chance to reach Slack before the JVM exits
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> {
+            presenceAggregator.shutdown();
+            outboundDispatcher.shutdown(5000);
+            connectionSupervisor.shutdown();
+            pendingLinkCodes.shutdown();
+            accountLinks.close();
+            deliveryCursor.save();
+            if (messageJournal != null) {
+                try {
+                    messageJournal.close();
+                } catch (IOException e) {}
+            }
+            if (outbox != null) {
+                try {
+                    outbox.close();
+                } catch (IOException e) {}
+            }
+            if (emojiDownloader != null) {
+                emojiDownloader.shutdown();
+            }
+            stopResourcePackServer();
+        });
 
         if (slackInitialized.compareAndSet(false, true)) {
             initSlackSocketMode();
@@ -106,75 +247,50 @@ public class SlackBridge implements ModInitializer {
 
         // Start Emogg emoji downloader and resource pack server
         if (currentConfig.slack_bot_token != null && !currentConfig.slack_bot_token.isBlank()) {
-            emojiDownloader = new com.gamer_waves.slackbridge.emoji.EmoggEmojiDownloader(currentConfig.slack_bot_token);
+            emojiDownloader = new com.gamer_waves.slackbridge.emoji.EmoggEmojiDownloader(
+                currentConfig.slack_bot_token, currentConfig.emoji_sync_interval_minutes, currentConfig.emoji_download_max_concurrency);
             
-            // Check if ZIP already exists from previous run
-            if (emojiDownloader.getZipFile() != null && 
-                java.nio.file.Files.exists(emojiDownloader.getZipFile())) {
-                
-                LOGGER.info("Found existing resource pack ZIP, starting server immediately");
-                resourcePackServer = new com.gamer_waves.slackbridge.emoji.ResourcePackServer(8080);
-                resourcePackServer.start(emojiDownloader.getZipFile());
-                LOGGER.info("Players will receive Emogg resource pack on join");
-            } else {
-                LOGGER.info("No existing resource pack found, starting download...");
-            }
+            // The server starts as soon as a complete, hashed pack exists: at once if the last run left one,
+            // otherwise when the first sync has built it
+            emojiDownloader.onPackReady(sha1 -> startResourcePackServer());
             
-            // Start downloader (will skip if files exist)
+            // Syncs now and then periodically, downloading only new or changed emojis
             emojiDownloader.start();
-            
-            // Start resource pack server after a delay (wait for ZIP to be created)
-            new Thread(() -> {
-                try {
-                    // Check every 10 seconds for up to 2 minutes
-                    for (int i = 0; i < 12; i++) {
-                        Thread.sleep(10000);
-                        
-                        if (resourcePackServer == null && 
-                            emojiDownloader.getZipFile() != null && 
-                            java.nio.file.Files.exists(emojiDownloader.getZipFile())) {
-                            
-                            resourcePackServer = new com.gamer_waves.slackbridge.emoji.ResourcePackServer(8080);
-                            resourcePackServer.start(emojiDownloader.getZipFile());
-                            LOGGER.info("Players will receive Emogg resource pack on join");
-                            break;
-                        }
-                    }
-                    
-                    if (resourcePackServer == null) {
-                        LOGGER.warn("Resource pack ZIP not ready after 2 minutes");
-                    }
-                } catch (Exception e) {
-                    LOGGER.error("Failed to start resource pack server", e);
-                }
-            }, "ResourcePackServerInit").start();
         }
 
         CommandRegistrationCallback.EVENT.register((dispatcher, registryAccess, environment) -> {
             UnlinkCommand.register(dispatcher);
+            HistoryCommand.register(dispatcher);
+            EmojiSyncCommand.register(dispatcher);
         });
 
         ServerPlayConnectionEvents.JOIN.register((handler, sender, server) -> {
             String name = handler.player.getName().getString();
             String uuid = handler.player.getUuidAsString();
             
-            if (accountLinks.getSlackId(uuid) == null) {
-                String linkCode = generateLinkCode();
-                long expiryTime = System.currentTimeMillis() + (CODE_EXPIRY_SECONDS * 1000);
-                pendingLinkCodes.put(linkCode, new LinkCodeData(uuid, name, expiryTime));
+            if (accountLinks.getSlackId(handler.player.getUuid()) == null) {
+                // Rejoining before the code expires hands out the same code again
+                LinkCodeStore.LinkCode linkCode = pendingLinkCodes.issue(uuid, name);
+                if (linkCode == null) {
+                    handler.player.networkHandler.disconnect(Text.literal(
+                        "§cToo many pending link requests. Please try again in a few minutes."
+                    ));
+                    return;
+                }
                 
                 Text disconnectMessage = Text.literal(
                     "§c§l§nYou must link your Slack account to join the server!\n\n" +
-                    "§r§ePlease run §6/link " + linkCode + "§e in Slack to link your account.\n\n" +
-                    "§7§oThis code expires in " + CODE_EXPIRY_SECONDS + " seconds."
+                    "§r§ePlease run §6/link " + linkCode.code() + "§e in Slack to link your account.\n\n" +
+                    "§7§oThis code expires in " + linkCode.secondsLeft() + " seconds."
                 );
                 
                 handler.player.networkHandler.disconnect(disconnectMessage);
             } else {
-                sendSlackMessageFromPlayer(name, uuid, "joined the game");
+                presenceAggregator.playerJoined(name, uuid);
+                mentionEngine.playerJoined(name, uuid);
                 
                 // Send resource pack download link
-                sendResourcePackMessage(handler.player);
+                sendResourcePack(handler.player);
             }
         });
 
@@ -182,18 +298,12 @@ public class SlackBridge implements ModInitializer {
             String name = handler.player.getName().getString();
             String uuid = handler.player.getUuidAsString();
             
-            if (accountLinks.getSlackId(uuid) != null) {
-                sendSlackMessageFromPlayer(name, uuid, "left the game");
+            if (accountLinks.getSlackId(handler.player.getUuid()) != null) {
+                presenceAggregator.playerLeft(name, uuid);
             }
+            chatThrottle.forget(uuid);
+            mentionEngine.playerLeft(name, uuid);
         });
-
-        // ServerMessageEvents.CHAT_MESSAGE.register((msg, sender, params) -> {
-        //     String name = sender.getName().getString();
-        //     String uuid = sender.getUuidAsString();
-        //     String text = msg.getContent().getString();
-        //     text = processMcMentions(text);
-        //     sendSlackMessageFromPlayer(name, uuid, text);
-        // });
     }
 
     private static class Config {
@@ -201,6 +311,42 @@ public class SlackBridge implements ModInitializer {
         public String slack_bot_token = "";
         public String slack_app_token = "";
         public String resource_pack_host = "localhost";
+        public int outbound_queue_capacity = 1024;
+        public String outbound_overflow_policy = "drop_oldest"; // drop_oldest, drop_newest or block
+        public long outbound_block_timeout_ms = 50;
+        public int chat_player_burst = 5;
+        public int chat_player_messages_per_minute = 20;
+        public int presence_digest_window_seconds = 10; // 0 posts every join/leave/death on its own
+        public int user_cache_size = 5000;
+        public int user_cache_ttl_minutes = 60;
+        public int thread_cache_size = 500;
+        public int thread_cache_idle_minutes = 30;
+        public int inbound_buffer_capacity = 256;
+        public int inbound_max_chars_per_tick = 2000;
+        public int inbound_max_age_seconds = 300; // Older messages (e.g. queued during startup) are dropped
+        public int inbound_dedup_window = 4096; // Recent message ts values remembered to drop redeliveries
+        public int inbound_reorder_window_ms = 250;
+        public int inbound_reorder_max_wait_ms = 5000;
+        public int player_snapshot_interval_ticks = 20;
+        public int backfill_max_messages = 50; // Missed messages shown after a restart; 0 disables backfill
+        public int backfill_max_pages = 10; // conversations.history pages of 200 read at most
+        public int history_retention_days = 7;
+        public int resource_pack_max_downloads = 4; // Concurrent resource pack downloads
+        public int resource_pack_download_queue = 16; // Further downloads that wait; the rest get a 503
+        public int resource_pack_max_kbps = 0; // Total upload for pack downloads in KB/s; 0 = unlimited
+        public int resource_pack_client_max_kbps = 0; // Per player address in KB/s; 0 = unlimited
+        public boolean resource_pack_required = false; // Players who decline the pack are disconnected
+        public int emoji_sync_interval_minutes = 60; // How often new, changed and deleted Slack emojis are picked up
+        public int emoji_download_max_concurrency = 64; // Upper bound; the actual level adapts to latency and 429s
+
+        com.gamer_waves.slackbridge.emoji.ResourcePackServer.Limits resourcePackLimits() {
+            return new com.gamer_waves.slackbridge.emoji.ResourcePackServer.Limits(
+                resource_pack_max_downloads,
+                resource_pack_download_queue,
+                resource_pack_max_kbps * 1024L,
+                resource_pack_client_max_kbps * 1024L
+            );
+        }
 
         static Config loadConfig() {
             Path path = Paths.get(CONFIG_DIR, CONFIG_FILE);
@@ -234,68 +380,65 @@ public class SlackBridge implements ModInitializer {
         }
     }
 
+    // Shared by the server thread and the Slack socket threads; LinkIndex makes that safe
     private static class AccountLinks {
-        public Map<String, String> mcUuidToSlackId = new HashMap<>();
-        public Map<String, String> slackIdToMcUuid = new HashMap<>();
+        private final LinkIndex index = new LinkIndex();
+        private LinkStore store;
 
         static AccountLinks loadLinks() {
-            Path path = Paths.get(CONFIG_DIR, LINKS_FILE);
+            AccountLinks links = new AccountLinks();
             try {
-                if (!Files.exists(path)) {
-                    Files.createDirectories(path.getParent());
-                    AccountLinks def = new AccountLinks();
-                    saveLinks(def);
-                    return def;
-                }
-                try (Reader r = Files.newBufferedReader(path)) {
-                    AccountLinks links = GSON.fromJson(r, AccountLinks.class);
-                    if (links == null) links = new AccountLinks();
-                    return links;
-                }
+                links.store = LinkStore.open(Paths.get(CONFIG_DIR, LINKS_FILE), links.index);
             } catch (Exception e) {
-                return new AccountLinks();
+                LOGGER.error("Failed to load account links, changes will not be saved", e);
             }
+            return links;
         }
 
-        static void saveLinks(AccountLinks links) {
-            Path path = Paths.get(CONFIG_DIR, LINKS_FILE);
-            try {
-                Files.createDirectories(path.getParent());
-                Gson pretty = new GsonBuilder().setPrettyPrinting().create();
-                try (Writer w = Files.newBufferedWriter(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
-                    pretty.toJson(links, w);
-                }
-            } catch (Exception e) {}
+        // Writers are serialised so the journal records changes in the order the index applied them
+        synchronized void linkAccounts(String mcUuid, String slackId) {
+            UUID uuid = UUID.fromString(mcUuid);
+            index.link(uuid, slackId);
+            if (store != null) store.recordLink(uuid, slackId);
         }
 
-        void linkAccounts(String mcUuid, String slackId) {
-            mcUuidToSlackId.put(mcUuid, slackId);
-            slackIdToMcUuid.put(slackId, mcUuid);
-            saveLinks(this);
+        synchronized void unlinkByUuid(String mcUuid) {
+            UUID uuid = UUID.fromString(mcUuid);
+            if (index.unlink(uuid) != null && store != null) {
+                store.recordUnlink(uuid);
+            }
         }
 
-        void unlinkByUuid(String mcUuid) {
-            String slackId = mcUuidToSlackId.remove(mcUuid);
-            if (slackId != null) {
-                slackIdToMcUuid.remove(slackId);
-                saveLinks(this);
+        synchronized void unlinkBySlackId(String slackId) {
+            if (index.unlink(slackId) != null && store != null) {
+                store.recordUnlink(slackId);
             }
         }
 
-        void unlinkBySlackId(String slackId) {
-            String mcUuid = slackIdToMcUuid.remove(slackId);
-            if (mcUuid != null) {
-                mcUuidToSlackId.remove(mcUuid);
-                saveLinks(this);
+        synchronized void close() {
+            if (store == null) return;
+            try {
+                store.close();
+            } catch (IOException e) {
+                LOGGER.warn("Failed to compact account links on shutdown: {}", e.getMessage());
             }
         }
 
+        String getSlackId(UUID mcUuid) {
+            return index.getSlackId(mcUuid);
+        }
+
         String getSlackId(String mcUuid) {
-            return mcUuidToSlackId.get(mcUuid);
+            try {
+                return index.getSlackId(UUID.fromString(mcUuid));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
         }
 
         String getMcUuid(String slackId) {
-            return slackIdToMcUuid.get(slackId);
+            UUID uuid = index.getMcUuid(slackId);
+            return uuid != null ? uuid.toString() : null;
         }
     }
 
@@ -318,38 +461,54 @@ public class SlackBridge implements ModInitializer {
                     String channelId = event.getChannel();
                     if (channelId == null || !channelId.equals(currentConfig.slack_channel)) return ctx.ack();
 
+                    String ts = event.getTs() != null ? event.getTs() : event.getEventTs();
+                    if (ts != null && !eventDedup.firstSeen(EventDedup.key(channelId, ts))) return ctx.ack();
+
+                    InboundSequencer.Ticket<Text> ticket = inboundSequencer.open(ts);
+                    MutableText rendered = null;
                     try {
-                        StringBuilder messageBlock = new StringBuilder();
                         String userId = event.getUser();
                         String displayName = getDisplayName(userId);
+                        journal(MessageJournal.Source.SLACK, ts, linkedUuid(userId), displayName, event.getText());
+
+                        ThreadCache.ThreadState thread = null;
+                        boolean isReply = event.getThreadTs() != null && !event.getThreadTs().equals(event.getTs());
+                        if (isReply) {
+                            thread = threadCache.recordReply(event.getThreadTs());
+                        }
 
-                        if (event.getThreadTs() != null && !event.getThreadTs().equals(event.getTs())) {
-                            // Fetch all messages in the thread
-                            var repliesResp = slackApp.client().conversationsReplies(r -> r
+                        if (thread != null) {
+                            // Parent is cached: only show the new reply under it
+                            Text reply = MrkdwnConverter.toText(event.getText(), LIVE_NAMES);
+                            rendered = ThreadCache.renderDelta(thread, displayName, reply, QUIET_NAMES);
+                        } else if (isReply) {
+                            // Unknown thread: fetch it once and show all of it; only the new reply pings anyone
+                            var repliesResp = slackScheduler.call(MethodTier.TIER_3, () -> slackApp.client().conversationsReplies(r -> r
                                     .channel(channelId)
-                                    .ts(event.getThreadTs()));
+                                    .ts(event.getThreadTs())));
                             if (repliesResp.isOk()) {
-                                boolean first = true;
                                 for (var msg : repliesResp.getMessages()) {
-                                    String msgUserId = msg.getUser();
                                     String msgText = msg.getText();
-                                    String msgName = getDisplayName(msgUserId);
-                                    if (first) {
-                                        messageBlock.append("Γ [Slack] <").append(msgName).append("> ").append(msgText).append("\n");
-                                        first = false;
+                                    String msgName = getDisplayName(msg.getUser());
+                                    var names = msg.getTs() != null && msg.getTs().equals(ts) ? LIVE_NAMES : QUIET_NAMES;
+                                    if (rendered == null) {
+                                        rendered = MrkdwnConverter.line("Γ [Slack] ", msgName, MrkdwnConverter.toText(msgText, names));
+                                        threadCache.rememberParent(event.getThreadTs(), msgName, msgText,
+                                                repliesResp.getMessages().size() - 1);
                                     } else {
-                                        messageBlock.append("| [Reply] <").append(msgName).append("> ").append(msgText).append("\n");
+                                        rendered.append("\n").append(MrkdwnConverter.line("| [Reply] ", msgName, MrkdwnConverter.toText(msgText, names)));
                                     }
                                 }
                             }
                         } else {
                             String text = event.getText();
-                            text = processSlackMentions(text);
-                            messageBlock.append("[Slack] <").append(displayName).append("> ").append(text);
+                            threadCache.rememberParent(event.getTs(), displayName, text, 0);
+                            rendered = MrkdwnConverter.line("[Slack] ", displayName, MrkdwnConverter.toText(text, LIVE_NAMES));
                         }
-
-                        broadcastToMinecraft(messageBlock.toString().trim());
-                    } catch (Exception e) {}
+                    } catch (Exception e) {
+                    } finally {
+                        inboundSequencer.complete(ticket, rendered);
+                    }
 
                     return ctx.ack();
                 });
@@ -357,53 +516,57 @@ public class SlackBridge implements ModInitializer {
 
                 slackApp.event(MessageBotEvent.class, (payload, ctx) -> ctx.ack());
 
-                slackApp.command("/list", (req, ctx) -> {
-                    MinecraftServer server = currentServer;
-                    if (server == null) {
-                        return ctx.ack("Server is not running");
+                // Edits are shown again, marked as edited; both update the history
+                slackApp.event(MessageChangedEvent.class, (payload, ctx) -> {
+                    MessageChangedEvent event = payload.getEvent();
+                    var message = event.getMessage();
+                    if (message == null || message.getBotId() != null || messageJournal == null
+                            || !currentConfig.slack_channel.equals(event.getChannel())) {
+                        return ctx.ack();
+                    }
+                    if (!eventDedup.firstSeen(EventDedup.key(event.getChannel(), "edit:" + event.getEventTs()))) return ctx.ack();
+
+                    MessageJournal.Entry previous = messageJournal.recordEdit(message.getTs(), message.getText());
+                    // Unfurling a link also sends message_changed, with the same text
+                    if (previous != null && !previous.text().equals(message.getText())) {
+                        Text body = MrkdwnConverter.toText(message.getText(), QUIET_NAMES);
+                        broadcastToMinecraft(MrkdwnConverter.line("[Slack] ", previous.name(), body)
+                                .append(Text.literal(" (edited)").formatted(Formatting.GRAY)), null);
+                    }
+                    return ctx.ack();
+                });
+
+                slackApp.event(MessageDeletedEvent.class, (payload, ctx) -> {
+                    MessageDeletedEvent event = payload.getEvent();
+                    if (messageJournal == null || !currentConfig.slack_channel.equals(event.getChannel())) return ctx.ack();
+
+                    MessageJournal.Entry deleted = messageJournal.recordDelete(event.getDeletedTs());
+                    if (deleted != null && deleted.source() == MessageJournal.Source.SLACK) {
+                        broadcastToMinecraft(Text.literal("[Slack] " + deleted.name() + " deleted a message").formatted(Formatting.GRAY), null);
                     }
+                    return ctx.ack();
+                });
 
-                    int playerCount = server.getCurrentPlayerCount();
-                    int maxPlayers = server.getMaxPlayerCount();
+                slackApp.event(UserChangeEvent.class, (payload, ctx) -> {
+                    User user = payload.getEvent().getUser();
+                    if (user != null) {
+                        userCache.update(user.getId(), displayNameOf(user));
+                    }
+                    return ctx.ack();
+                });
 
-                    List<LayoutBlock> blocks = new ArrayList<>();
-                    
-                    blocks.add(SectionBlock.builder()
-                            .text(MarkdownTextObject.builder()
-                                    .text("*Players online: " + playerCount + "/" + maxPlayers + "*")
-                                    .build())
-                            .build());
-
-                    if (playerCount > 0) {
-                        server.getPlayerManager().getPlayerList().forEach(player -> {
-                            String playerName = player.getName().getString();
-                            String uuid = player.getUuidAsString();
-                            String avatarUrl = "https://cravatar.eu/avatar/" + uuid + "/32";
-                            
-                            blocks.add(SectionBlock.builder()
-                                    .text(MarkdownTextObject.builder()
-                                            .text(playerName)
-                                            .build())
-                                    .accessory(ImageElement.builder()
-                                            .imageUrl(avatarUrl)
-                                            .altText(playerName)
-                                            .build())
-                                    .build());
-                        });
-                    } else {
-                        blocks.add(SectionBlock.builder()
-                                .text(MarkdownTextObject.builder()
-                                        .text("_No players online_")
-                                        .build())
-                                .build());
+                // /list and /whois only read the snapshot published by the server thread
+                slackApp.command("/list", (req, ctx) -> {
+                    if (currentServer == null) {
+                        return ctx.ack("Server is not running");
                     }
 
+                    List<LayoutBlock> blocks = statusBlocks.listBlocks();
                     return ctx.ack(r -> r.blocks(blocks));
                 });
 
                 slackApp.command("/whois", (req, ctx) -> {
-                    MinecraftServer server = currentServer;
-                    if (server == null) {
+                    if (currentServer == null) {
                         return ctx.ack("Server is not running");
                     }
 
@@ -412,48 +575,11 @@ public class SlackBridge implements ModInitializer {
                         return ctx.ack("Usage: `/whois <player_name>`");
                     }
 
-                    var player = server.getPlayerManager().getPlayer(playerName);
-                    if (player == null) {
+                    List<LayoutBlock> blocks = statusBlocks.whoisBlocks(playerName);
+                    if (blocks == null) {
                         return ctx.ack("Player `" + playerName + "` is not online");
                     }
 
-                    String uuid = player.getUuidAsString();
-                    String avatarUrl = "https://cravatar.eu/avatar/" + uuid + "/64";
-                    
-                    double health = player.getHealth();
-                    double maxHealth = player.getMaxHealth();
-                    int foodLevel = player.getHungerManager().getFoodLevel();
-                    
-                    var pos = player.getBlockPos();
-                    String location = String.format("X: %d, Y: %d, Z: %d", pos.getX(), pos.getY(), pos.getZ());
-                    String world = player.getEntityWorld().getRegistryKey().getValue().toString();
-                    String gameMode = player.interactionManager.getGameMode().asString();
-                    
-                    long lastSeenTicks = server.getTicks() - player.getLastActionTime();
-                    boolean isAFK = lastSeenTicks > 6000; // 5 minutes
-                    String afkStatus = isAFK ? "AFK (" + (lastSeenTicks / 20 / 60) + "m)" : "Active";
-                    
-                    StringBuilder info = new StringBuilder();
-                    info.append("*Player Info: ").append(player.getName().getString()).append("*\n\n");
-                    info.append("• *Health:* ").append(String.format("%.1f/%.1f", health, maxHealth)).append("\n");
-                    info.append("• *Hunger:* ").append(foodLevel).append("/20\n");
-                    info.append("• *Game Mode:* ").append(gameMode).append("\n");
-                    info.append("• *Status:* ").append(afkStatus).append("\n");
-                    info.append("• *World:* `").append(world).append("`\n");
-                    info.append("• *Location:* `").append(location).append("`\n");
-                    info.append("• *UUID:* `").append(uuid).append("`");
-
-                    List<LayoutBlock> blocks = new ArrayList<>();
-                    blocks.add(SectionBlock.builder()
-                            .text(MarkdownTextObject.builder()
-                                    .text(info.toString())
-                                    .build())
-                            .accessory(ImageElement.builder()
-                                    .imageUrl(avatarUrl)
-                                    .altText(player.getName().getString())
-                                    .build())
-                            .build());
-
                     return ctx.ack(r -> r.blocks(blocks));
                 });
 
@@ -465,19 +591,15 @@ public class SlackBridge implements ModInitializer {
                         return ctx.ack("Usage: `/link <code>`\nExample: `/link ABC123`\n\nGet your link code by joining the Minecraft server.");
                     }
 
-                    LinkCodeData codeData = pendingLinkCodes.get(linkCode);
-                    if (codeData == null || codeData.isExpired()) {
-                        if (codeData != null && codeData.isExpired()) {
-                            pendingLinkCodes.remove(linkCode);
-                        }
+                    LinkCodeStore.LinkCode codeData = pendingLinkCodes.redeem(linkCode);
+                    if (codeData == null) {
                         return ctx.ack("Invalid or expired link code. Please join the Minecraft server to get a new code.");
                     }
 
-                    String mcUuid = codeData.uuid;
-                    String playerName = codeData.username;
+                    String mcUuid = codeData.uuid();
+                    String playerName = codeData.username();
                     
                     accountLinks.linkAccounts(mcUuid, slackUserId);
-                    pendingLinkCodes.remove(linkCode);
 
                     return ctx.ack("Successfully linked your Slack account to Minecraft player: `" + playerName + "`\n\nYou can now join the server!");
                 });
@@ -506,122 +628,359 @@ public class SlackBridge implements ModInitializer {
                 });
 
                 socket = new SocketModeApp(currentConfig.slack_app_token, slackApp);
-                socket.startAsync();
+                try {
+                    socket.startAsync();
+                } catch (Exception e) {
+                    LOGGER.warn("Failed to connect to Slack Socket Mode, will keep retrying: {}", e.getMessage());
+                }
+
+                prewarmUserCache();
+                backfillMissedMessages();
 
             } catch (Exception e) {}
         }, "SlackBridge-SocketThread").start();
     }
 
+    // Runs on the server thread every player_snapshot_interval_ticks
+    private static void publishPlayerSnapshot(MinecraftServer server) {
+        List<PlayerSnapshot.PlayerInfo> players = new ArrayList<>();
+        for (var player : server.getPlayerManager().getPlayerList()) {
+            var pos = player.getBlockPos();
+            long idleTicks = server.getTicks() - player.getLastActionTime();
+            int afkMinutes = idleTicks > 6000 ? (int) (idleTicks / 20 / 60) : 0; // AFK after 5 minutes
+            players.add(new PlayerSnapshot.PlayerInfo(
+                player.getName().getString(),
+                player.getUuidAsString(),
+                player.getHealth(),
+                player.getMaxHealth(),
+                player.getHungerManager().getFoodLevel(),
+                pos.getX(), pos.getY(), pos.getZ(),
+                player.getEntityWorld().getRegistryKey().getValue().toString(),
+                player.interactionManager.getGameMode().asString(),
+                afkMinutes
+            ));
+        }
+        statusBlocks.publish(server.getMaxPlayerCount(), players);
+    }
+
     private static String getDisplayName(String userId) {
-        if (slackApp == null || userId == null || userId.isBlank()) return userId;
+        if (userCache == null) return userId;
+        return userCache.getDisplayName(userId);
+    }
+
+    private static String cachedDisplayName(String userId) {
+        String name = userCache != null ? userCache.getIfPresent(userId) : null;
+        return name != null ? name : userId;
+    }
+
+    // Cache miss path; returns null so failures aren't cached
+    private static String fetchDisplayName(String userId) {
+        if (slackApp == null) return null;
         try {
-            UsersInfoResponse response = slackApp.client().usersInfo(r -> r.user(userId));
+            UsersInfoResponse response = slackScheduler.call(MethodTier.TIER_4, () -> slackApp.client().usersInfo(r -> r.user(userId)));
             if (response.isOk() && response.getUser() != null) {
-                String displayName = response.getUser().getProfile().getDisplayName();
-                if (displayName != null && !displayName.isBlank()) return displayName;
-                String realName = response.getUser().getProfile().getRealName();
-                if (realName != null && !realName.isBlank()) return realName;
+                return displayNameOf(response.getUser());
             }
         } catch (Exception e) {}
-        return userId;
+        return null;
     }
 
-    public static void sendSlackMessageFromPlayer(String playerName, String uuid, String message) {
-        if (slackApp == null || currentConfig == null || currentConfig.slack_channel.isBlank()) return;
+    private static String displayNameOf(User user) {
+        if (user.getProfile() != null) {
+            String displayName = user.getProfile().getDisplayName();
+            if (displayName != null && !displayName.isBlank()) return displayName;
+            String realName = user.getProfile().getRealName();
+            if (realName != null && !realName.isBlank()) return realName;
+        }
+        return user.getId();
+    }
 
-        String icon = "https://cravatar.eu/avatar/" + uuid + "/512?u=" + System.currentTimeMillis();
-        System.out.println(icon);
+    // Pages through users.list so the first messages after startup don't each cost a users.info call
+    private static void prewarmUserCache() {
+        int loaded = 0;
+        String cursor = null;
+        try {
+            do {
+                final String pageCursor = cursor;
+                var response = slackScheduler.call(MethodTier.TIER_2, () -> slackApp.client().usersList(r -> r
+                        .limit(200)
+                        .cursor(pageCursor)));
+                if (!response.isOk()) {
+                    LOGGER.warn("Failed to list Slack users: {}", response.getError());
+                    break;
+                }
+                for (User user : response.getMembers()) {
+                    if (user.isDeleted()) continue;
+                    userCache.update(user.getId(), displayNameOf(user));
+                    loaded++;
+                }
+                cursor = response.getResponseMetadata() != null ? response.getResponseMetadata().getNextCursor() : null;
+            } while (cursor != null && !cursor.isEmpty() && loaded < currentConfig.user_cache_size);
+        } catch (Exception e) {
+            LOGGER.warn("Failed to prewarm Slack user cache: {}", e.getMessage());
+        }
+        LOGGER.info("Cached {} Slack user profiles", loaded);
+    }
 
+    // Pages conversations.history from where the last run stopped and posts one "while you were away" digest
+    private static void backfillMissedMessages() {
+        String oldest = deliveryCursor.loadedTs();
+        if (oldest == null || currentConfig.backfill_max_messages <= 0) return;
+
+        String channel = currentConfig.slack_channel;
+        long now = System.currentTimeMillis();
+        String latest = String.format(Locale.ROOT, "%d.%06d", now / 1000, (now % 1000) * 1000);
+        AwayDigest digest = new AwayDigest(currentConfig.backfill_max_messages);
+        String cursor = null;
+        int pages = 0;
         try {
-            slackApp.client().chatPostMessage(r -> r
-                    .channel(currentConfig.slack_channel)
-                    .text(message)
-                    .username(playerName)
-                    .iconUrl(icon)
-            );
-        } catch (IOException | SlackApiException e) {}
+            do {
+                final String pageCursor = cursor;
+                var response = slackScheduler.call(MethodTier.TIER_3, () -> slackApp.client().conversationsHistory(r -> r
+                        .channel(channel)
+                        .oldest(oldest)
+                        .latest(latest)
+                        .inclusive(false)
+                        .limit(200)
+                        .cursor(pageCursor)));
+                if (!response.isOk()) {
+                    LOGGER.warn("Failed to fetch missed Slack messages: {}", response.getError());
+                    break;
+                }
+                for (var msg : response.getMessages()) {
+                    String subtype = msg.getSubtype();
+                    if (msg.getBotId() != null || (subtype != null && !subtype.equals("thread_broadcast") && !subtype.equals("file_share"))) continue;
+                    // Already shown live since the socket connected
+                    if (!eventDedup.firstSeen(EventDedup.key(channel, msg.getTs()))) continue;
+                    digest.offer(new AwayDigest.Entry(msg.getTs(), msg.getUser(), msg.getText()));
+                }
+                pages++;
+                cursor = response.isHasMore() && response.getResponseMetadata() != null
+                        ? response.getResponseMetadata().getNextCursor() : null;
+            } while (cursor != null && !cursor.isEmpty() && pages < currentConfig.backfill_max_pages);
+            if (cursor != null && !cursor.isEmpty()) digest.markIncomplete();
+        } catch (Exception e) {
+            LOGGER.warn("Failed to fetch missed Slack messages: {}", e.getMessage());
+        }
+        if (digest.isEmpty()) return;
+
+        broadcastBackfill(Text.literal(digest.header()), null);
+        if (digest.omitted() > 0) {
+            broadcastBackfill(Text.literal("| (" + digest.omitted() + " earlier messages not shown)"), null);
+        }
+        for (AwayDigest.Entry entry : digest.entries()) {
+            String text = entry.text() == null ? "" : entry.text();
+            if (text.length() > BACKFILL_PREVIEW_CHARS) {
+                text = text.substring(0, BACKFILL_PREVIEW_CHARS) + "…";
+            }
+            Text body = MrkdwnConverter.toText(text, QUIET_NAMES);
+            broadcastBackfill(MrkdwnConverter.line("| ", getDisplayName(entry.userId()), body), entry.ts());
+        }
+        LOGGER.info("Backfilled {} Slack messages missed since {}", digest.entries().size(), oldest);
     }
 
-    private static void broadcastToMinecraft(String msg) {
-        MinecraftServer server = currentServer;
-        if (server == null) {
-            pendingMessages.add(msg);
+    /**
+     * Queues a player's chat line, subject to their per-player burst limit.
+     * A throttled player is told in game that the message did not reach Slack.
+     */
+    public static void sendChatFromPlayer(net.minecraft.server.network.ServerPlayerEntity player, String message) {
+        String uuid = player.getUuidAsString();
+        if (chatThrottle != null && !chatThrottle.tryAcquire(uuid)) {
+            if (chatThrottle.shouldWarn(uuid)) {
+                player.sendMessage(Text.literal("§7[Slack] §cYou're chatting too fast, some messages weren't sent to Slack."));
+            }
             return;
         }
+        sendSlackMessageFromPlayer(player.getName().getString(), uuid, message, Lane.CHAT);
+    }
 
-        server.execute(() -> {
-            while (!pendingMessages.isEmpty()) {
-                server.getPlayerManager().broadcast(Text.literal(pendingMessages.poll()), false);
+    public static void recordPlayerDeath(String playerName, String uuid, String message) {
+        if (presenceAggregator == null || currentConfig == null || currentConfig.slack_channel.isBlank()) return;
+        presenceAggregator.playerDied(playerName, uuid, MrkdwnConverter.toMrkdwn(message));
+    }
+
+    /**
+     * Queues a message for Slack. Safe to call from the server thread: it never touches the network.
+     */
+    public static void sendSlackMessageFromPlayer(String playerName, String uuid, String message, Lane lane) {
+        if (outboundDispatcher == null || currentConfig == null || currentConfig.slack_channel.isBlank()) return;
+        submitOutbound(OutboundMessage.of(playerName, uuid, message, lane));
+    }
+
+    // Persist first so the message survives a crash or a Slack outage, then queue it
+    private static void submitOutbound(OutboundMessage message) {
+        if (outbox != null) {
+            try {
+                message = outbox.append(message);
+            } catch (IOException | RuntimeException e) {
+                LOGGER.debug("Failed to persist outbound message: {}", e.getMessage());
             }
-            server.getPlayerManager().broadcast(Text.literal(msg), false);
-        });
+        }
+        outboundDispatcher.enqueue(message);
     }
 
-    private static String processSlackMentions(String text) {
-        if (accountLinks == null || currentServer == null) return text;
+    // The dispatcher pages these back in as its queue has room, so a large backlog never floods memory
+    private static void replayOutbox() {
+        if (outbox == null) return;
+        try {
+            int pending = outbox.recover();
+            if (pending > 0) {
+                LOGGER.info("Replaying {} Slack messages that were not delivered before the last shutdown", pending);
+            }
+        } catch (IOException e) {
+            LOGGER.error("Failed to read Slack outbox", e);
+        }
+    }
 
-        Pattern mentionPattern = Pattern.compile("<@([A-Z0-9]+)>");
-        Matcher matcher = mentionPattern.matcher(text);
-        StringBuffer result = new StringBuffer();
+    // Runs on the outbound dispatcher thread, which already holds a POST_MESSAGE permit.
+    // Returns false if the post should be retried once Slack is reachable again.
+    private static boolean postToSlack(OutboundMessage message) {
+        if (currentConfig.slack_channel.isBlank() || currentConfig.slack_bot_token.isBlank()) return true;
+        if (slackApp == null) return false; // Still starting up
 
-        while (matcher.find()) {
-            String slackUserId = matcher.group(1);
-            String mcUuid = accountLinks.getMcUuid(slackUserId);
-            
-            if (mcUuid != null) {
-                var player = currentServer.getPlayerManager().getPlayer(UUID.fromString(mcUuid));
-                if (player != null) {
-                    String mcName = player.getName().getString();
-                    matcher.appendReplacement(result, "§e@" + mcName + "§r");
-                    
-                    currentServer.execute(() -> {
-                        player.sendMessage(Text.literal("§e§l[PING] §r§7You were mentioned in Slack!"));
-                    });
-                    continue;
-                }
+        // Digests have no player behind them and keep the bot's own icon
+        String icon = message.uuid() == null ? null
+            : "https://cravatar.eu/avatar/" + message.uuid() + "/512?u=" + message.createdAt();
+
+        try {
+            var response = slackScheduler.execute(MethodTier.POST_MESSAGE, () -> slackApp.client().chatPostMessage(r -> r
+                    .channel(currentConfig.slack_channel)
+                    .text(message.text())
+                    .username(message.username())
+                    .iconUrl(icon)
+            ));
+            if (!response.isOk()) {
+                LOGGER.warn("Slack rejected message from {}: {}", message.username(), response.getError());
+            } else {
+                journal(MessageJournal.Source.MINECRAFT, response.getTs(), message.uuid(), message.username(), message.text());
             }
-            
-            String displayName = getDisplayName(slackUserId);
-            matcher.appendReplacement(result, "@" + displayName);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (SlackApiException e) {
+            // Server errors and exhausted rate-limit retries are worth retrying, other errors are not
+            int status = e.getResponse() != null ? e.getResponse().code() : 500;
+            return status < 500 && status != 429;
+        } catch (IOException e) {
+            return false;
         }
-        matcher.appendTail(result);
-        return result.toString();
     }
 
+    // Drained on the next server tick, or once the server has started
+    private static void broadcastToMinecraft(Text msg, String ts) {
+        inboundBroadcaster.submit(msg, ts);
+    }
+
+    // Exempt from the stale-message limit; the cursor only moves past these once they were shown
+    private static void broadcastBackfill(Text msg, String ts) {
+        inboundBroadcaster.submit(msg, ts, false);
+    }
+
+    // Live messages ping mentioned players; thread history and parent previews don't
+    private static final MrkdwnConverter.Resolver LIVE_NAMES = new SlackNames(true, true);
+    private static final MrkdwnConverter.Resolver QUIET_NAMES = new SlackNames(false, true);
+    // For the server thread: cached names only, raw IDs on a miss, never a Slack call
+    private static final MrkdwnConverter.Resolver CACHED_NAMES = new SlackNames(false, false);
+
+    private static final class SlackNames implements MrkdwnConverter.Resolver {
+        private final boolean ping;
+        private final boolean lookup;
+
+        SlackNames(boolean ping, boolean lookup) {
+            this.ping = ping;
+            this.lookup = lookup;
+        }
+
+        @Override
+        public Text user(String slackId) {
+            String uuid = accountLinks != null && currentServer != null ? accountLinks.getMcUuid(slackId) : null;
+            String mcName = mentionEngine.onlinePlayerName(uuid);
+            if (mcName == null) {
+                String name = lookup ? getDisplayName(slackId) : cachedDisplayName(slackId);
+                return Text.literal("@" + name);
+            }
+            if (ping) pingPlayer(uuid);
+            return Text.literal("@" + mcName).formatted(Formatting.YELLOW);
+        }
+
+        @Override
+        public String channel(String channelId, String label) {
+            if (label != null && !label.isEmpty()) return label;
+            if (lookup) return getChannelName(channelId);
+            String name = channelNames.get(channelId);
+            return name != null ? name : channelId;
+        }
+    }
+
+    private static String getChannelName(String channelId) {
+        String name = channelNames.get(channelId);
+        if (name != null) return name;
+        if (slackApp == null) return channelId;
+        try {
+            var resp = slackScheduler.call(MethodTier.TIER_3, () -> slackApp.client().conversationsInfo(r -> r.channel(channelId)));
+            name = resp.isOk() && resp.getChannel() != null ? resp.getChannel().getName() : null;
+        } catch (Exception e) {
+            LOGGER.warn("Failed to look up Slack channel {}", channelId, e);
+        }
+        if (name == null) return channelId;
+        channelNames.put(channelId, name);
+        return name;
+    }
+
+    // Runs on the server thread
     public static String processMcMentions(String text) {
         if (accountLinks == null || currentServer == null) return text;
+        return mentionEngine.toSlack(text, accountLinks::getSlackId);
+    }
 
-        Pattern mentionPattern = Pattern.compile("@(\\w+)");
-        Matcher matcher = mentionPattern.matcher(text);
-        StringBuffer result = new StringBuffer();
-
-        while (matcher.find()) {
-            String mcUsername = matcher.group(1);
-            var player = currentServer.getPlayerManager().getPlayer(mcUsername);
-            
+    private static void pingPlayer(String uuid) {
+        MinecraftServer server = currentServer;
+        if (server == null) return;
+        server.execute(() -> {
+            var player = server.getPlayerManager().getPlayer(UUID.fromString(uuid));
             if (player != null) {
-                String mcUuid = player.getUuidAsString();
-                String slackUserId = accountLinks.getSlackId(mcUuid);
-                
-                if (slackUserId != null) {
-                    matcher.appendReplacement(result, "<@" + slackUserId + ">");
-                    continue;
-                }
+                player.sendMessage(Text.literal("§e§l[PING] §r§7You were mentioned in Slack!"));
             }
-            
-            matcher.appendReplacement(result, "@" + mcUsername);
+        });
+    }
+
+    private static void journal(MessageJournal.Source source, String ts, String uuid, String name, String text) {
+        if (messageJournal != null) {
+            messageJournal.record(source, ts, uuid, name, text);
         }
-        matcher.appendTail(result);
-        return result.toString();
     }
 
-    private static String generateLinkCode() {
-        String chars = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
-        StringBuilder code = new StringBuilder();
-        for (int i = 0; i < 6; i++) {
-            code.append(chars.charAt(random.nextInt(chars.length())));
+    private static String linkedUuid(String slackId) {
+        return accountLinks != null && slackId != null ? accountLinks.getMcUuid(slackId) : null;
+    }
+
+    /**
+     * The last {@code count} bridged messages, oldest first, rendered for chat. Backs /slackhistory, so it runs on
+     * the server thread and only uses names that are already cached.
+     */
+    public static List<Text> recentHistory(int count) {
+        List<Text> lines = new ArrayList<>();
+        if (messageJournal == null) return lines;
+        DateTimeFormatter time = DateTimeFormatter.ofPattern("HH:mm").withZone(ZoneId.systemDefault());
+        for (MessageJournal.Entry entry : messageJournal.tail(count)) {
+            String prefix = entry.source() == MessageJournal.Source.SLACK ? "[Slack] " : "[MC] ";
+            MutableText line = Text.empty()
+                    .append(Text.literal(time.format(Instant.ofEpochMilli(entry.createdAt())) + " ").formatted(Formatting.GRAY))
+                    .append(MrkdwnConverter.line(prefix, entry.name(), MrkdwnConverter.toText(entry.text(), CACHED_NAMES)));
+            if (entry.edited()) {
+                line.append(Text.literal(" (edited)").formatted(Formatting.GRAY));
+            }
+            lines.add(line);
         }
-        return code.toString();
+        return lines;
+    }
+
+    /**
+     * Where the emoji sync is, for /slackemoji; null if emoji sync is off.
+     */
+    public static com.gamer_waves.slackbridge.emoji.EmoggEmojiDownloader.Progress emojiSyncProgress() {
+        return emojiDownloader != null ? emojiDownloader.getProgress() : null;
     }
 
     public static boolean isPlayerLinked(String uuid) {
@@ -633,22 +992,43 @@ public class SlackBridge implements ModInitializer {
             accountLinks.unlinkByUuid(uuid);
         }
     }
-    
-    private static void sendResourcePackMessage(net.minecraft.server.network.ServerPlayerEntity player) {
+
+    // Later rebuilds replace the ZIP in place, so the running server already serves them
+    private static synchronized void startResourcePackServer() {
+        if (resourcePackServer != null) return;
+        resourcePackServer = new com.gamer_waves.slackbridge.emoji.ResourcePackServer(8080, currentConfig.resourcePackLimits());
+        resourcePackServer.start(emojiDownloader.getZipFile());
+        LOGGER.info("Players will receive Emogg resource pack on join");
+    }
+
+    // Frees port 8080 and the download workers; like the rest of the bridge, it is not started again in this JVM
+    private static synchronized void stopResourcePackServer() {
+        if (resourcePackServer == null) return;
+        resourcePackServer.stop();
+        resourcePackServer = null;
+    }
+
+    // Uses the client's own server resource pack prompt; a client that already has a pack with this hash skips the download
+    private static void sendResourcePack(net.minecraft.server.network.ServerPlayerEntity player) {
         if (resourcePackServer == null || emojiDownloader == null) {
             return; // Not ready yet
         }
         
         try {
             String resourcePackUrl = resourcePackServer.getUrl(currentConfig.resource_pack_host);
-            
-            if (resourcePackUrl != null) {
-                player.sendMessage(Text.literal("§e§l[Emogg] §r§7To make emojis work, download this resource pack:"));
-                player.sendMessage(Text.literal("§b" + resourcePackUrl));
-                LOGGER.info("Sent resource pack link to player: {}", player.getName().getString());
-            }
+            // Hashed when the pack was built; never hash on the server thread
+            String sha1 = PackHash.getIfCached(emojiDownloader.getZipFile());
+
+            player.networkHandler.sendPacket(new ResourcePackSendS2CPacket(
+                EMOJI_PACK_ID,
+                resourcePackUrl,
+                sha1 != null ? sha1 : "",
+                currentConfig.resource_pack_required,
+                Text.literal("§eSlack emojis for chat (Emogg)")
+            ));
+            LOGGER.info("Sent resource pack to player: {}", player.getName().getString());
         } catch (Exception e) {
-            LOGGER.error("Failed to send resource pack message to player", e);
+            LOGGER.error("Failed to send resource pack to player", e);
         }
     }
 }
@@ -0,0 +1,70 @@
+package com.gamer_waves.slackbridge.chat;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Rewrites Minecraft {@code @name} mentions for Slack with a single
+ * hand-written scan per message, backed by an index of online players that
+ * is updated on join and quit. A message without mentions is returned as the
+ * same String instance, with nothing allocated. Slack mentions going the
+ * other way are resolved by {@link MrkdwnConverter} against the same index.
+ */
+public class MentionEngine {
+    private final Map<String, String> uuidByLowerName = new ConcurrentHashMap<>();
+    private final Map<String, String> nameByUuid = new ConcurrentHashMap<>();
+
+    public void playerJoined(String name, String uuid) {
+        uuidByLowerName.put(name.toLowerCase(Locale.ROOT), uuid);
+        nameByUuid.put(uuid, name);
+    }
+
+    public void playerLeft(String name, String uuid) {
+        uuidByLowerName.remove(name.toLowerCase(Locale.ROOT), uuid);
+        nameByUuid.remove(uuid);
+    }
+
+    /**
+     * Minecraft to Slack: {@code @PlayerName} becomes {@code <@SLACKID>} when the
+     * player is online and linked. Anything else is left as typed.
+     */
+    public String toSlack(String text, Function<String, String> slackIdForUuid) {
+        int at = text.indexOf('@');
+        if (at < 0) return text;
+
+        StringBuilder out = null;
+        int copied = 0;
+        int length = text.length();
+        while (at >= 0) {
+            int end = at + 1;
+            while (end < length && isWordChar(text.charAt(end))) end++;
+
+            if (end > at + 1) {
+                String uuid = uuidByLowerName.get(text.substring(at + 1, end).toLowerCase(Locale.ROOT));
+                String slackId = uuid != null ? slackIdForUuid.apply(uuid) : null;
+                if (slackId != null) {
+                    if (out == null) out = new StringBuilder(length + 16);
+                    out.append(text, copied, at).append("<@").append(slackId).append('>');
+                    copied = end;
+                }
+            }
+            at = text.indexOf('@', end);
+        }
+
+        if (out == null) return text;
+        return out.append(text, copied, length).toString();
+    }
+
+    /**
+     * Name of the online player with this UUID, or null. Used to render Slack mentions of linked users.
+     */
+    public String onlinePlayerName(String uuid) {
+        return uuid == null ? null : nameByUuid.get(uuid);
+    }
+
+    private static boolean isWordChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+}
@@ -0,0 +1,374 @@
+package com.gamer_waves.slackbridge.chat;
+
+import net.minecraft.text.ClickEvent;
+import net.minecraft.text.HoverEvent;
+import net.minecraft.text.MutableText;
+import net.minecraft.text.Style;
+import net.minecraft.text.Text;
+import net.minecraft.util.Formatting;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Converts between Slack mrkdwn and Minecraft text, one linear scan per
+ * message in each direction. Slack to Minecraft builds a styled
+ * {@link Text} tree: links become clickable, user and channel references are
+ * resolved to names, and bold, italic, strikethrough and code are kept.
+ * Minecraft to Slack turns styles and legacy {@code §} codes into mrkdwn
+ * markers and escapes the characters Slack treats as markup.
+ */
+public final class MrkdwnConverter {
+
+    /**
+     * Resolves the references found in a Slack message.
+     */
+    public interface Resolver {
+        Text user(String slackId);
+
+        String channel(String channelId, String label);
+    }
+
+    private static final int BOLD = 1, ITALIC = 2, STRIKE = 4;
+    private static final Style[] STYLES = new Style[8];
+    private static final Style CODE_STYLE = Style.EMPTY.withColor(Formatting.GRAY);
+    private static final Style BROADCAST_STYLE = Style.EMPTY.withColor(Formatting.GOLD);
+    private static final Style LINK_STYLE = Style.EMPTY.withColor(Formatting.BLUE).withUnderline(true);
+    private static final Map<String, Text> TEMPLATES = new ConcurrentHashMap<>();
+
+    static {
+        for (int flags = 0; flags < STYLES.length; flags++) {
+            STYLES[flags] = Style.EMPTY
+                    .withBold((flags & BOLD) != 0 ? Boolean.TRUE : null)
+                    .withItalic((flags & ITALIC) != 0 ? Boolean.TRUE : null)
+                    .withStrikethrough((flags & STRIKE) != 0 ? Boolean.TRUE : null);
+        }
+    }
+
+    private MrkdwnConverter() {}
+
+    /**
+     * A chat line such as {@code [Slack] <name> message}. The fixed prefix is parsed once and reused.
+     */
+    public static MutableText line(String template, String name, Text body) {
+        Text prefix = TEMPLATES.computeIfAbsent(template, t -> toText(t, null));
+        return Text.empty().append(prefix).append("<" + name + "> ").append(body);
+    }
+
+    public static MutableText toText(String mrkdwn, Resolver resolver) {
+        if (mrkdwn == null || mrkdwn.isEmpty()) return Text.empty();
+        if (isPlain(mrkdwn)) return Text.literal(mrkdwn);
+        return new Parser(mrkdwn, resolver).parse();
+    }
+
+    private static boolean isPlain(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            switch (text.charAt(i)) {
+                case '<', '&', '*', '_', '~', '`' -> { return false; }
+                default -> {}
+            }
+        }
+        return true;
+    }
+
+    private static final class Parser {
+        private final String text;
+        private final Resolver resolver;
+        private final MutableText root = Text.empty();
+        private final StringBuilder run = new StringBuilder();
+        private int flags;
+        // Last position of each marker on the current line; an opener with no later marker is plain text
+        private int lineEnd = -1, lastBold, lastItalic, lastStrike;
+
+        Parser(String text, Resolver resolver) {
+            this.text = text;
+            this.resolver = resolver;
+        }
+
+        MutableText parse() {
+            int length = text.length();
+            int i = 0;
+            while (i < length) {
+                if (i > lineEnd) scanLine(i);
+                char c = text.charAt(i);
+                switch (c) {
+                    case '<' -> i = reference(i);
+                    case '&' -> i = entity(i, run);
+                    case '`' -> i = code(i);
+                    case '*', '_', '~' -> i = marker(i, c);
+                    case '\n' -> {
+                        // Slack never carries a style over a line break
+                        flush();
+                        flags = 0;
+                        run.append(c);
+                        i++;
+                    }
+                    default -> {
+                        run.append(c);
+                        i++;
+                    }
+                }
+            }
+            flush();
+            return root;
+        }
+
+        private void scanLine(int from) {
+            int end = text.indexOf('\n', from);
+            lineEnd = end < 0 ? text.length() : end;
+            lastBold = lastItalic = lastStrike = -1;
+            for (int i = from; i < lineEnd; i++) {
+                switch (text.charAt(i)) {
+                    case '*' -> lastBold = i;
+                    case '_' -> lastItalic = i;
+                    case '~' -> lastStrike = i;
+                    default -> {}
+                }
+            }
+        }
+
+        private int marker(int i, char c) {
+            int flag = c == '*' ? BOLD : c == '_' ? ITALIC : STRIKE;
+            int last = c == '*' ? lastBold : c == '_' ? lastItalic : lastStrike;
+            char prev = i > 0 ? text.charAt(i - 1) : ' ';
+            char next = i + 1 < text.length() ? text.charAt(i + 1) : ' ';
+
+            boolean toggles;
+            if ((flags & flag) == 0) {
+                toggles = !Character.isLetterOrDigit(prev) && !Character.isWhitespace(next) && last > i + 1;
+            } else {
+                toggles = !Character.isWhitespace(prev) && !Character.isLetterOrDigit(next);
+            }
+            if (toggles) {
+                flush();
+                flags ^= flag;
+            } else {
+                run.append(c);
+            }
+            return i + 1;
+        }
+
+        private int code(int i) {
+            boolean block = text.startsWith("```", i);
+            String fence = block ? "```" : "`";
+            int start = i + fence.length();
+            int close = text.indexOf(fence, start);
+            if (close < 0 || (!block && close == start)) {
+                run.append(fence);
+                return start;
+            }
+            flush();
+            StringBuilder code = new StringBuilder(close - start);
+            for (int j = start; j < close; ) {
+                j = text.charAt(j) == '&' ? entity(j, code) : appendChar(j, code);
+            }
+            root.append(Text.literal(code.toString()).setStyle(CODE_STYLE));
+            return close + fence.length();
+        }
+
+        private int appendChar(int i, StringBuilder out) {
+            out.append(text.charAt(i));
+            return i + 1;
+        }
+
+        private int entity(int i, StringBuilder out) {
+            if (text.startsWith("&lt;", i)) {
+                out.append('<');
+                return i + 4;
+            }
+            if (text.startsWith("&gt;", i)) {
+                out.append('>');
+                return i + 4;
+            }
+            if (text.startsWith("&amp;", i)) {
+                out.append('&');
+                return i + 5;
+            }
+            out.append('&');
+            return i + 1;
+        }
+
+        // <@U123>, <#C123|name>, <!here>, <https://x|label>
+        private int reference(int i) {
+            int close = text.indexOf('>', i + 1);
+            int newline = text.indexOf('\n', i + 1);
+            if (close < 0 || close == i + 1 || (newline >= 0 && newline < close)) {
+                run.append('<');
+                return i + 1;
+            }
+            int bar = text.indexOf('|', i + 1);
+            String target = text.substring(i + 1, bar >= 0 && bar < close ? bar : close);
+            if (target.isEmpty()) {
+                // <|label> is not a reference; show it as typed
+                run.append('<');
+                return i + 1;
+            }
+            String label = bar >= 0 && bar < close ? decode(text.substring(bar + 1, close)) : null;
+
+            switch (target.charAt(0)) {
+                case '@' -> {
+                    flush();
+                    String id = target.substring(1);
+                    root.append(resolver != null ? resolver.user(id) : Text.literal("@" + (label != null ? label : id)));
+                }
+                case '#' -> {
+                    String id = target.substring(1);
+                    run.append('#').append(resolver != null ? resolver.channel(id, label) : label != null ? label : id);
+                }
+                case '!' -> {
+                    flush();
+                    root.append(Text.literal(special(target.substring(1), label)).setStyle(BROADCAST_STYLE));
+                }
+                default -> {
+                    flush();
+                    String url = decode(target);
+                    root.append(link(url, label != null ? label : url));
+                }
+            }
+            return close + 1;
+        }
+
+        private static String special(String command, String label) {
+            if (label != null) return label;
+            return switch (command) {
+                case "here", "channel", "everyone" -> "@" + command;
+                default -> command.startsWith("subteam^") ? "@group" : "@" + command;
+            };
+        }
+
+        private Text link(String url, String label) {
+            Style style = LINK_STYLE.withParent(STYLES[flags]);
+            if (url.startsWith("https://") || url.startsWith("http://")) {
+                style = style
+                        .withClickEvent(new ClickEvent(ClickEvent.Action.OPEN_URL, url))
+                        .withHoverEvent(new HoverEvent(HoverEvent.Action.SHOW_TEXT, Text.literal(url)));
+            } else if (url.startsWith("mailto:") && label.equals(url)) {
+                label = url.substring("mailto:".length());
+            }
+            return Text.literal(label).setStyle(style);
+        }
+
+        private static String decode(String value) {
+            if (value.indexOf('&') < 0) return value;
+            return value.replace("&lt;", "<").replace("&gt;", ">").replace("&amp;", "&");
+        }
+
+        private void flush() {
+            if (run.length() == 0) return;
+            root.append(Text.literal(run.toString()).setStyle(STYLES[flags]));
+            run.setLength(0);
+        }
+    }
+
+    /**
+     * Minecraft to Slack for a styled chat component.
+     */
+    public static String toMrkdwn(Text text) {
+        MrkdwnWriter writer = new MrkdwnWriter();
+        text.visit((style, segment) -> {
+            ClickEvent click = style.getClickEvent();
+            if (click != null && click.getAction() == ClickEvent.Action.OPEN_URL) {
+                writer.link(click.getValue(), segment);
+            } else {
+                writer.write(segment, flagsOf(style));
+            }
+            return Optional.empty();
+        }, Style.EMPTY);
+        return writer.finish();
+    }
+
+    /**
+     * Minecraft to Slack for plain text that may carry legacy {@code §} codes.
+     */
+    public static String toMrkdwn(String text) {
+        if (text == null) return null;
+        boolean plain = true;
+        for (int i = 0; i < text.length() && plain; i++) {
+            char c = text.charAt(i);
+            plain = c != '§' && c != '&' && c != '<' && c != '>';
+        }
+        if (plain) return text;
+
+        MrkdwnWriter writer = new MrkdwnWriter();
+        writer.write(text, 0);
+        return writer.finish();
+    }
+
+    private static int flagsOf(Style style) {
+        return (style.isBold() ? BOLD : 0) | (style.isItalic() ? ITALIC : 0) | (style.isStrikethrough() ? STRIKE : 0);
+    }
+
+    private static final class MrkdwnWriter {
+        private static final char[] MARKERS = {'*', '_', '~'};
+
+        private final StringBuilder out = new StringBuilder();
+        private int open;   // Markers written so far and not yet closed
+        private int wanted; // Style of the text being written
+
+        void write(String segment, int baseFlags) {
+            wanted = baseFlags;
+            int length = segment.length();
+            for (int i = 0; i < length; i++) {
+                char c = segment.charAt(i);
+                if (c == '§' && i + 1 < length) {
+                    wanted = legacyCode(Character.toLowerCase(segment.charAt(++i)), wanted, baseFlags);
+                    continue;
+                }
+                if (!Character.isWhitespace(c)) sync();
+                switch (c) {
+                    case '&' -> out.append("&amp;");
+                    case '<' -> out.append("&lt;");
+                    case '>' -> out.append("&gt;");
+                    default -> out.append(c);
+                }
+            }
+        }
+
+        void link(String url, String label) {
+            wanted = 0;
+            sync();
+            out.append('<').append(url.replace("|", "%7C").replace(">", "%3E"));
+            if (!label.isEmpty() && !label.equals(url)) {
+                out.append('|').append(label.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;"));
+            }
+            out.append('>');
+        }
+
+        String finish() {
+            wanted = 0;
+            sync();
+            return out.toString();
+        }
+
+        private static int legacyCode(char code, int current, int baseFlags) {
+            return switch (code) {
+                case 'l' -> current | BOLD;
+                case 'o' -> current | ITALIC;
+                case 'm' -> current | STRIKE;
+                case 'k', 'n' -> current;
+                // A colour or §r resets formatting, as it does in game
+                default -> code == 'r' ? baseFlags : 0;
+            };
+        }
+
+        // Markers only pair up in Slack if they hug the text, so closers go before trailing spaces
+        private void sync() {
+            if (open == wanted) return;
+            if ((open & ~wanted) != 0) {
+                int spaces = 0;
+                while (spaces < out.length() && Character.isWhitespace(out.charAt(out.length() - 1 - spaces))) spaces++;
+                StringBuilder closers = new StringBuilder(3);
+                for (int m = MARKERS.length - 1; m >= 0; m--) {
+                    if ((open & (1 << m)) != 0) closers.append(MARKERS[m]);
+                }
+                out.insert(out.length() - spaces, closers);
+                open = 0;
+            }
+            for (int m = 0; m < MARKERS.length; m++) {
+                if ((wanted & (1 << m)) != 0 && (open & (1 << m)) == 0) out.append(MARKERS[m]);
+            }
+            open = wanted;
+        }
+    }
+}
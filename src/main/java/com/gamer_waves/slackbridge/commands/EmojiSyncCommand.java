@@ -0,0 +1,37 @@
+package com.gamer_waves.slackbridge.commands;
+
+import com.mojang.brigadier.CommandDispatcher;
+import net.minecraft.server.command.CommandManager;
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.text.Text;
+import com.gamer_waves.slackbridge.SlackBridge;
+import com.gamer_waves.slackbridge.emoji.EmoggEmojiDownloader;
+
+public class EmojiSyncCommand {
+    public static void register(CommandDispatcher<ServerCommandSource> dispatcher) {
+        dispatcher.register(CommandManager.literal("slackemoji")
+            .requires(source -> source.hasPermissionLevel(2))
+            .executes(context -> execute(context.getSource())));
+    }
+
+    private static int execute(ServerCommandSource source) {
+        EmoggEmojiDownloader.Progress progress = SlackBridge.emojiSyncProgress();
+        if (progress == null) {
+            source.sendFeedback(() -> Text.literal("§7Emoji sync is off (no Slack bot token)."), false);
+            return 0;
+        }
+
+        String status = switch (progress.stage()) {
+            case IDLE -> "§7waiting to start";
+            case LISTING -> "§elisting workspace emojis";
+            case DOWNLOADING -> "§edownloading " + progress.done() + "/" + progress.total()
+                + " (" + (progress.total() == 0 ? 0 : progress.done() * 100 / progress.total()) + "%)";
+            case PACKING -> "§ebuilding resource pack";
+            case HASHING -> "§ehashing resource pack";
+            case READY -> "§aup to date";
+            case FAILED -> "§clast sync failed, see the server log";
+        };
+        source.sendFeedback(() -> Text.literal("§e§lEmoji sync: §r" + status), false);
+        return 1;
+    }
+}
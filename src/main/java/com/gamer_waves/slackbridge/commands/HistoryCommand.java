@@ -0,0 +1,37 @@
+package com.gamer_waves.slackbridge.commands;
+
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import net.minecraft.server.command.CommandManager;
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.text.Text;
+import com.gamer_waves.slackbridge.SlackBridge;
+
+import java.util.List;
+
+public class HistoryCommand {
+    private static final int DEFAULT_COUNT = 10;
+    private static final int MAX_COUNT = 50;
+
+    public static void register(CommandDispatcher<ServerCommandSource> dispatcher) {
+        dispatcher.register(CommandManager.literal("slackhistory")
+            .executes(context -> execute(context.getSource(), DEFAULT_COUNT))
+            .then(CommandManager.argument("count", IntegerArgumentType.integer(1, MAX_COUNT))
+                .executes(context -> execute(context.getSource(), IntegerArgumentType.getInteger(context, "count")))));
+    }
+
+    private static int execute(ServerCommandSource source, int count) {
+        List<Text> lines = SlackBridge.recentHistory(count);
+
+        if (lines.isEmpty()) {
+            source.sendFeedback(() -> Text.literal("§7No bridged messages yet."), false);
+            return 0;
+        }
+
+        source.sendFeedback(() -> Text.literal("§e§lLast " + lines.size() + " bridged messages:"), false);
+        for (Text line : lines) {
+            source.sendFeedback(() -> line, false);
+        }
+        return lines.size();
+    }
+}
@@ -3,121 +3,325 @@ package com.gamer_waves.slackbridge.emoji;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.gamer_waves.slackbridge.SlackBridge;
+import com.gamer_waves.slackbridge.util.AdaptiveLimit;
 
-import java.io.*;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * Downloads Slack emojis and creates a resource pack for the Emogg mod.
  * Emogg requires emojis in a resource pack at assets/emogg/emoji/
+ * A manifest of what was downloaded (see {@link EmojiManifest}) lets each
+ * sync fetch only the emojis that were added or changed since the last one.
  */
 public class EmoggEmojiDownloader {
     private final String slackToken;
     private final Path resourcePackDir;
     private final Path emojiDir;
     private final Path zipFile;
+    private final Path manifestFile;
+    private final int syncIntervalMinutes;
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final int MAX_ATTEMPTS = 5;
+    private static final long BASE_BACKOFF_MS = 500;
+    private static final long MAX_BACKOFF_MS = 30_000;
+
     private final ExecutorService downloadExecutor;
-    private final AtomicInteger downloadedCount = new AtomicInteger(0);
+    private final HttpClient http;
+    private final AdaptiveLimit concurrency;
+    private final ArrayDeque<Runnable> waiting = new ArrayDeque<>();
+    private int inFlight;
+    private final ScheduledExecutorService syncScheduler;
+    private final List<Consumer<String>> packListeners = new CopyOnWriteArrayList<>();
+    private volatile Progress progress = new Progress(Stage.IDLE, 0, 0);
+    // Finished downloads this sync; getProgress reads it directly, so the count never goes backwards
+    private final AtomicInteger downloadsDone = new AtomicInteger();
     private boolean initialized = false;
     private int totalEmojis = 0;
 
-    public EmoggEmojiDownloader(String slackToken) {
+    public EmoggEmojiDownloader(String slackToken, int syncIntervalMinutes, int maxConcurrentDownloads) {
         this.slackToken = slackToken;
+        this.syncIntervalMinutes = Math.max(1, syncIntervalMinutes);
         this.resourcePackDir = Paths.get("config/emogg_resourcepack");
         this.emojiDir = resourcePackDir.resolve("assets/emogg/emoji");
         this.zipFile = Paths.get("config/emogg_resourcepack.zip");
-        this.downloadExecutor = Executors.newFixedThreadPool(5);
+        this.manifestFile = Paths.get("config/emogg_manifest.json");
+        AtomicInteger threadCount = new AtomicInteger();
+        this.downloadExecutor = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()), r -> {
+            Thread thread = new Thread(r, "SlackBridge-EmojiDownload-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        // One client for the list and every image; HTTP/2 multiplexes the downloads over a few connections
+        this.http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .connectTimeout(Duration.ofSeconds(10))
+            .executor(downloadExecutor)
+            .build();
+        this.concurrency = new AdaptiveLimit(8, 2, Math.max(2, maxConcurrentDownloads));
+        this.syncScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "SlackBridge-EmojiSync");
+            thread.setDaemon(true);
+            return thread;
+        });
     }
     
     public Path getZipFile() {
         return zipFile;
     }
     
+    /**
+     * SHA-1 of the ZIP; hashed once per build and cached next to it (see {@link PackHash}).
+     */
     public String getZipSha1() {
         try {
-            if (!Files.exists(zipFile)) return null;
-            return calculateSha1(zipFile);
+            return PackHash.get(zipFile);
         } catch (Exception e) {
             return null;
         }
     }
 
+    public enum Stage { IDLE, LISTING, DOWNLOADING, PACKING, HASHING, READY, FAILED }
+
+    /**
+     * Where the current (or last) sync is; {@code done}/{@code total} count emojis while downloading.
+     */
+    public record Progress(Stage stage, int done, int total) {}
+
+    /**
+     * Called with the pack's SHA-1 whenever a complete pack is available: the existing one at startup, and each
+     * rebuilt one after that. Runs on the sync thread.
+     */
+    public void onPackReady(Consumer<String> listener) {
+        packListeners.add(listener);
+    }
+
+    public Progress getProgress() {
+        Progress current = progress;
+        if (current.stage() != Stage.DOWNLOADING) return current;
+        return new Progress(Stage.DOWNLOADING, Math.min(downloadsDone.get(), current.total()), current.total());
+    }
+
     public void start() {
         if (initialized) return;
         initialized = true;
 
-        // Check if ZIP already exists
-        if (Files.exists(zipFile)) {
-            SlackBridge.LOGGER.info("Resource pack ZIP already exists, skipping download");
-            return;
+        SlackBridge.LOGGER.info("Starting Emogg emoji sync (every {} minutes)", syncIntervalMinutes);
+        syncScheduler.execute(() -> {
+            // A pack left by the last run is complete (it is only ever moved into place), so serve it right away
+            if (PackWriter.isComplete(zipFile)) {
+                publish();
+            }
+            runSync();
+        });
+    }
+
+    /**
+     * One sync, as stages that each start when the previous one has finished:
+     * list, download, pack, hash, then hand the pack to the listeners. The next sync is scheduled once this one
+     * is over, however long it took.
+     */
+    private void runSync() {
+        CompletableFuture.supplyAsync(this::plan, syncScheduler)
+            .thenCompose(this::download)
+            .thenApplyAsync(this::pack, syncScheduler)
+            .whenCompleteAsync((rebuilt, error) -> {
+                if (error != null) {
+                    progress = new Progress(Stage.FAILED, 0, 0);
+                    SlackBridge.LOGGER.error("Emoji sync failed", error instanceof CompletionException ? error.getCause() : error);
+                } else if (rebuilt) {
+                    publish();
+                } else {
+                    progress = new Progress(Stage.READY, 0, 0);
+                }
+                if (!syncScheduler.isShutdown()) {
+                    syncScheduler.schedule(this::runSync, syncIntervalMinutes, TimeUnit.MINUTES);
+                }
+            }, syncScheduler);
+    }
+
+    /**
+     * What a sync has to do, worked out from emoji.list and the manifest.
+     */
+    private static final class Plan {
+        final EmojiManifest manifest;
+        final Map<String, String> downloads = new HashMap<>();
+        int removed;
+        int adopted;
+        int changed;
+
+        Plan(EmojiManifest manifest) {
+            this.manifest = manifest;
         }
+    }
 
-        SlackBridge.LOGGER.info("Starting Emogg emoji downloader...");
+    /**
+     * Lists the workspace's emojis and compares them with the manifest. Emojis that are gone are deleted here;
+     * new ones and ones whose URL changed are left for {@link #download}.
+     */
+    private Plan plan() {
+        progress = new Progress(Stage.LISTING, 0, 0);
+        try {
+            // Create directories
+            Files.createDirectories(emojiDir);
 
-        // Run in background thread
-        new Thread(() -> {
-            try {
-                // Create directories
-                Files.createDirectories(emojiDir);
-                
-                // Create pack.mcmeta
-                createPackMcmeta();
-
-                // Fetch emoji list
-                Map<String, String> emojis = fetchEmojiList();
-                totalEmojis = emojis.size();
-                SlackBridge.LOGGER.info("Found {} emojis to download for Emogg", totalEmojis);
-
-                // Download all emojis
-                int count = 0;
-                for (Map.Entry<String, String> entry : emojis.entrySet()) {
-                    final String name = entry.getKey();
-                    final String url = entry.getValue();
-
-                    downloadExecutor.submit(() -> {
-                        try {
-                            if (downloadEmoji(name, url)) {
-                                int downloaded = downloadedCount.incrementAndGet();
-                                if (downloaded % 1000 == 0) {
-                                    SlackBridge.LOGGER.info("Downloaded {}/{} emojis", downloaded, totalEmojis);
-                                }
-                            }
-                        } catch (Exception e) {
-                            SlackBridge.LOGGER.debug("Failed to download emoji {}: {}", name, e.getMessage());
-                        }
-                    });
-
-                    count++;
+            // Create pack.mcmeta
+            createPackMcmeta();
+
+            // Fetch emoji list
+            Map<String, String> emojis = fetchEmojiList();
+            totalEmojis = emojis.size();
+            Plan plan = new Plan(EmojiManifest.load(manifestFile));
+
+            for (String name : new ArrayList<>(plan.manifest.names())) {
+                if (emojis.containsKey(name)) continue;
+                EmojiManifest.Entry gone = plan.manifest.get(name);
+                plan.manifest.remove(name);
+                Files.deleteIfExists(emojiDir.resolve(gone.file));
+                plan.removed++;
+            }
+
+            for (Map.Entry<String, String> entry : emojis.entrySet()) {
+                String name = entry.getKey();
+                String url = entry.getValue();
+                String fileName = fileName(name);
+                Path file = emojiDir.resolve(fileName);
+
+                EmojiManifest.Entry known = plan.manifest.get(name);
+                if (known != null && known.url.equals(url) && Files.exists(file)) continue;
+                if (known == null && Files.exists(file)) {
+                    // Downloaded before there was a manifest; record it instead of fetching it again
+                    plan.manifest.put(name, new EmojiManifest.Entry(url, sha1Hex(Files.readAllBytes(file)), fileName));
+                    plan.adopted++;
+                    continue;
                 }
+                plan.downloads.put(name, url);
+            }
+            if (plan.adopted > 0) {
+                SlackBridge.LOGGER.info("Recorded {} previously downloaded emojis in the manifest", plan.adopted);
+            }
+            return plan;
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        }
+    }
 
-                SlackBridge.LOGGER.info("All {} emojis queued for download", count);
-                
-                // Wait a bit for downloads to complete, then create ZIP
-                new Thread(() -> {
-                    try {
-                        Thread.sleep(60000); // Wait 1 minute
-                        createZipFile();
-                    } catch (Exception e) {
-                        SlackBridge.LOGGER.error("Failed to create resource pack ZIP", e);
-                    }
-                }, "EmoggZipCreator").start();
+    /**
+     * Completes once every download has either finished or failed.
+     */
+    private CompletableFuture<Plan> download(Plan plan) {
+        int total = plan.downloads.size();
+        if (total == 0) {
+            return CompletableFuture.completedFuture(plan);
+        }
+        SlackBridge.LOGGER.info("Downloading {} new or changed emojis of {}", total, totalEmojis);
+        long started = System.nanoTime();
+        downloadsDone.set(0);
+        progress = new Progress(Stage.DOWNLOADING, 0, total);
+
+        AtomicInteger changed = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicInteger reportedTenths = new AtomicInteger();
+        CompletableFuture<?>[] downloads = new CompletableFuture<?>[total];
+        int i = 0;
+        for (Map.Entry<String, String> entry : plan.downloads.entrySet()) {
+            String name = entry.getKey();
+            String url = entry.getValue();
+            downloads[i++] = downloadEmoji(name, url, plan.manifest).handle((wrote, error) -> {
+                if (error != null) {
+                    failed.incrementAndGet();
+                    SlackBridge.LOGGER.debug("Failed to download emoji {}: {}", name, error.getCause() != null ? error.getCause().getMessage() : error.getMessage());
+                } else if (wrote) {
+                    changed.incrementAndGet();
+                }
+                int finished = downloadsDone.incrementAndGet();
+                // Logged every 10%
+                int tenths = finished * 10 / total;
+                int reported = reportedTenths.get();
+                if (tenths > reported && tenths < 10 && reportedTenths.compareAndSet(reported, tenths)) {
+                    SlackBridge.LOGGER.info("Downloaded {}/{} emojis ({}%)", finished, total, tenths * 10);
+                }
+                return null;
+            });
+        }
+        return CompletableFuture.allOf(downloads).thenApply(v -> {
+            plan.changed = changed.get();
+            SlackBridge.LOGGER.info("Downloads finished in {} s: {} written, {} unchanged, {} failed (concurrency now {})",
+                (System.nanoTime() - started) / 1_000_000_000, plan.changed, total - plan.changed - failed.get(), failed.get(), concurrency.get());
+            return plan;
+        });
+    }
 
+    /**
+     * Saves the manifest and rebuilds the ZIP if anything changed. Returns whether there is a new pack.
+     */
+    private boolean pack(Plan plan) {
+        try {
+            if (plan.adopted > 0 || !plan.downloads.isEmpty() || plan.removed > 0) {
+                plan.manifest.save();
+            }
+            if (plan.changed > 0 || plan.removed > 0 || !PackWriter.isComplete(zipFile)) {
+                SlackBridge.LOGGER.info("Emoji sync: {} added or changed, {} removed, {} total", plan.changed, plan.removed, plan.manifest.size());
+                progress = new Progress(Stage.PACKING, 0, 0);
+                createZipFile(plan.manifest, plan.changed);
+                return true;
+            }
+            SlackBridge.LOGGER.debug("Emoji sync: no changes ({} emojis)", plan.manifest.size());
+            return false;
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    // Hashes the pack (cached next to it after the first time) and hands it to the listeners
+    private void publish() {
+        progress = new Progress(Stage.HASHING, 0, 0);
+        String sha1 = getZipSha1();
+        if (sha1 == null) {
+            progress = new Progress(Stage.FAILED, 0, 0);
+            SlackBridge.LOGGER.error("Resource pack ZIP could not be hashed, not serving it");
+            return;
+        }
+        SlackBridge.LOGGER.info("Resource pack ready, SHA-1: {}", sha1);
+        progress = new Progress(Stage.READY, 0, 0);
+        for (Consumer<String> listener : packListeners) {
+            try {
+                listener.accept(sha1);
             } catch (Exception e) {
-                SlackBridge.LOGGER.error("Failed to start emoji downloader", e);
+                SlackBridge.LOGGER.error("Resource pack listener failed", e);
             }
-        }, "EmoggEmojiDownloader").start();
+        }
     }
     
     private void createPackMcmeta() {
@@ -146,14 +350,17 @@ public class EmoggEmojiDownloader {
             throw new Exception("No Slack token provided");
         }
 
-        URL url = new java.net.URI("https://slack.com/api/emoji.list").toURL();
-        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-        conn.setRequestProperty("Authorization", "Bearer " + slackToken);
-        conn.setRequestMethod("GET");
+        HttpRequest request = HttpRequest.newBuilder(URI.create("https://slack.com/api/emoji.list"))
+            .header("Authorization", "Bearer " + slackToken)
+            .timeout(REQUEST_TIMEOUT)
+            .GET()
+            .build();
+        HttpResponse<byte[]> response = send(request, 0).join();
+        if (response.statusCode() != 200) {
+            throw new Exception("emoji.list returned HTTP " + response.statusCode());
+        }
 
-        InputStreamReader reader = new InputStreamReader(conn.getInputStream());
-        JsonObject json = JsonParser.parseReader(reader).getAsJsonObject();
-        reader.close();
+        JsonObject json = JsonParser.parseString(new String(response.body(), StandardCharsets.UTF_8)).getAsJsonObject();
 
         if (!json.get("ok").getAsBoolean()) {
             String error = json.has("error") ? json.get("error").getAsString() : "unknown";
@@ -174,56 +381,174 @@ public class EmoggEmojiDownloader {
         return result;
     }
 
-    private boolean downloadEmoji(String name, String urlString) throws Exception {
+    /**
+     * Sends the request once a slot under the adaptive limit is free, retrying 429s, 5xx and I/O errors with
+     * exponential backoff. Completes with the last response if every attempt was refused.
+     */
+    private CompletableFuture<HttpResponse<byte[]>> send(HttpRequest request, int attempt) {
+        return admit(() -> {
+            long started = System.nanoTime();
+            return http.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()).whenComplete((response, error) -> {
+                if (error != null) {
+                    concurrency.onFailure();
+                } else if (response.statusCode() == 429 || response.statusCode() == 503) {
+                    concurrency.onThrottled();
+                } else {
+                    concurrency.onSuccess(System.nanoTime() - started);
+                }
+            });
+        }).handle((response, error) -> {
+            boolean retry = error != null || response.statusCode() == 429 || response.statusCode() >= 500;
+            if (!retry) {
+                return CompletableFuture.completedFuture(response);
+            }
+            if (attempt + 1 >= MAX_ATTEMPTS) {
+                return error != null ? CompletableFuture.<HttpResponse<byte[]>>failedFuture(error) : CompletableFuture.completedFuture(response);
+            }
+            Executor later = CompletableFuture.delayedExecutor(backoffMillis(attempt, response), TimeUnit.MILLISECONDS, downloadExecutor);
+            return CompletableFuture.supplyAsync(() -> request, later).thenCompose(r -> send(r, attempt + 1));
+        }).thenCompose(next -> next);
+    }
+
+    // Retry-After when the server gives one, otherwise full jitter over an exponentially growing window
+    private static long backoffMillis(int attempt, HttpResponse<byte[]> response) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (response != null) {
+            Optional<String> retryAfter = response.headers().firstValue("Retry-After");
+            if (retryAfter.isPresent()) {
+                try {
+                    long seconds = Math.min(60, Math.max(0, Long.parseLong(retryAfter.get().trim())));
+                    return seconds * 1000 + random.nextLong(1000);
+                } catch (NumberFormatException e) {
+                    // An HTTP date; fall through to our own backoff
+                }
+            }
+        }
+        long window = Math.min(MAX_BACKOFF_MS, BASE_BACKOFF_MS << Math.min(attempt, 16));
+        return random.nextLong(window + 1);
+    }
+
+    /**
+     * Queues a request and starts it as soon as fewer than {@link AdaptiveLimit#get()} requests are in flight.
+     * Waiting retries do not hold a slot.
+     */
+    private <T> CompletableFuture<T> admit(Supplier<CompletableFuture<T>> request) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        synchronized (waiting) {
+            waiting.add(() -> {
+                CompletableFuture<T> started;
+                try {
+                    started = request.get();
+                } catch (RuntimeException e) {
+                    started = CompletableFuture.failedFuture(e);
+                }
+                started.whenComplete((value, error) -> {
+                    release();
+                    if (error != null) result.completeExceptionally(error); else result.complete(value);
+                });
+            });
+        }
+        pump();
+        return result;
+    }
+
+    private void release() {
+        synchronized (waiting) {
+            inFlight--;
+        }
+        pump();
+    }
+
+    private void pump() {
+        while (true) {
+            Runnable next;
+            synchronized (waiting) {
+                if (waiting.isEmpty() || inFlight >= concurrency.get()) return;
+                next = waiting.poll();
+                inFlight++;
+            }
+            next.run();
+        }
+    }
+
+    private static String fileName(String name) {
         // Sanitize filename
-        String safeName = name.replaceAll("[^a-zA-Z0-9._-]", "");
-        Path outputFile = emojiDir.resolve(safeName + ".png");
+        return name.replaceAll("[^a-zA-Z0-9._-]", "") + ".png";
+    }
 
-        // Skip if already exists
-        if (Files.exists(outputFile)) {
-            return false;
+    /**
+     * Completes with true if the file on disk changed; a new URL serving the same image leaves it alone.
+     */
+    private CompletableFuture<Boolean> downloadEmoji(String name, String urlString, EmojiManifest manifest) {
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(URI.create(urlString)).timeout(REQUEST_TIMEOUT).GET().build();
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(e);
         }
+        return send(request, 0).thenApplyAsync(response -> {
+            if (response.statusCode() != 200) {
+                throw new CompletionException(new IOException("HTTP " + response.statusCode()));
+            }
+            try {
+                return store(name, urlString, response.body(), manifest);
+            } catch (IOException | NoSuchAlgorithmException e) {
+                throw new CompletionException(e);
+            }
+        }, downloadExecutor);
+    }
+
+    private boolean store(String name, String urlString, byte[] data, EmojiManifest manifest) throws IOException, NoSuchAlgorithmException {
+        String fileName = fileName(name);
+        Path outputFile = emojiDir.resolve(fileName);
+        String sha1 = sha1Hex(data);
 
-        // Download to temp file first
-        Path tempFile = outputFile.getParent().resolve(safeName + ".tmp");
-        URL url = new java.net.URI(urlString).toURL();
-        try (InputStream in = url.openStream()) {
-            Files.copy(in, tempFile);
+        EmojiManifest.Entry previous = manifest.get(name);
+        manifest.put(name, new EmojiManifest.Entry(urlString, sha1, fileName));
+        if (previous != null && sha1.equals(previous.sha1) && Files.exists(outputFile)) {
+            return false;
         }
-        
-        // Move to final location
-        Files.move(tempFile, outputFile);
+
+        // Write to temp file first, then move over any older version
+        Path tempFile = outputFile.getParent().resolve(fileName + ".tmp");
+        Files.write(tempFile, data);
+        Files.move(tempFile, outputFile, StandardCopyOption.REPLACE_EXISTING);
         return true;
     }
+
+    private static String sha1Hex(byte[] data) throws NoSuchAlgorithmException {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-1").digest(data));
+    }
     
-    private void createZipFile() throws Exception {
+    private void createZipFile(EmojiManifest manifest, int downloaded) throws Exception {
         SlackBridge.LOGGER.info("Creating resource pack ZIP...");
-        
-        try (ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(zipFile.toFile()))) {
-            // Add pack.mcmeta
-            addFileToZip(zos, resourcePackDir.resolve("pack.mcmeta"), "pack.mcmeta");
-            
-            // Add all emoji files
-            Files.walk(emojiDir)
-                .filter(Files::isRegularFile)
-                .forEach(file -> {
-                    try {
-                        String relativePath = resourcePackDir.relativize(file).toString().replace("\\", "/");
-                        addFileToZip(zos, file, relativePath);
-                    } catch (Exception e) {
-                        SlackBridge.LOGGER.debug("Failed to add {} to ZIP", file);
-                    }
-                });
+        long started = System.nanoTime();
+
+        List<PackWriter.Source> sources = new ArrayList<>();
+        sources.add(new PackWriter.Source("pack.mcmeta", resourcePackDir.resolve("pack.mcmeta"), null));
+        for (String name : manifest.names()) {
+            EmojiManifest.Entry entry = manifest.get(name);
+            if (entry == null || entry.sha1 == null) continue;
+            Path file = emojiDir.resolve(entry.file);
+            if (!Files.isRegularFile(file)) continue;
+            String relativePath = resourcePackDir.relativize(file).toString().replace("\\", "/");
+            sources.add(new PackWriter.Source(relativePath, file, entry.sha1));
         }
+
+        // Built next to the old pack and swapped in, so a download in progress never sees a partial ZIP;
+        // unchanged entries are copied straight out of the old pack
+        Path tempZip = zipFile.resolveSibling(zipFile.getFileName() + ".tmp");
+        PackWriter.Result result = PackWriter.write(sources, zipFile, tempZip);
+        Files.move(tempZip, zipFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
         
-        String sha1 = calculateSha1(zipFile);
-        long sizeBytes = Files.size(zipFile);
+        long sizeBytes = result.size();
         long sizeMB = sizeBytes / (1024 * 1024);
         
         SlackBridge.LOGGER.info("Resource pack ZIP created: {}", zipFile.toAbsolutePath());
-        SlackBridge.LOGGER.info("SHA-1: {}", sha1);
         SlackBridge.LOGGER.info("Size: {} MB ({} bytes)", sizeMB, sizeBytes);
-        SlackBridge.LOGGER.info("Downloaded {} emojis", downloadedCount.get());
+        SlackBridge.LOGGER.info("{} entries ({} reused, {} written) in {} ms",
+            result.entries(), result.reused(), result.written(), (System.nanoTime() - started) / 1_000_000);
+        SlackBridge.LOGGER.info("Downloaded {} emojis", downloaded);
         
         if (sizeMB > 250) {
             SlackBridge.LOGGER.warn("Resource pack is larger than 250MB! Players may need to increase their client limit.");
@@ -231,34 +556,8 @@ public class EmoggEmojiDownloader {
         }
     }
     
-    private void addFileToZip(ZipOutputStream zos, Path file, String zipPath) throws Exception {
-        ZipEntry entry = new ZipEntry(zipPath);
-        zos.putNextEntry(entry);
-        Files.copy(file, zos);
-        zos.closeEntry();
-    }
-    
-    private String calculateSha1(Path file) throws Exception {
-        MessageDigest digest = MessageDigest.getInstance("SHA-1");
-        try (InputStream fis = Files.newInputStream(file)) {
-            byte[] buffer = new byte[8192];
-            int n;
-            while ((n = fis.read(buffer)) > 0) {
-                digest.update(buffer, 0, n);
-            }
-        }
-        
-        byte[] hash = digest.digest();
-        StringBuilder hexString = new StringBuilder();
-        for (byte b : hash) {
-            String hex = Integer.toHexString(0xff & b);
-            if (hex.length() == 1) hexString.append('0');
-            hexString.append(hex);
-        }
-        return hexString.toString();
-    }
-
     public void shutdown() {
+        syncScheduler.shutdownNow();
         downloadExecutor.shutdown();
     }
 }
@@ -0,0 +1,98 @@
+package com.gamer_waves.slackbridge.emoji;
+
+import com.gamer_waves.slackbridge.SlackBridge;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * What the emoji folder currently holds: for every Slack emoji its source
+ * URL, the SHA-1 of the downloaded image and the file it was saved as.
+ * Comparing this against emoji.list is what lets a sync download only the
+ * emojis that were added or changed.
+ */
+public class EmojiManifest {
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    private static final Type ENTRIES_TYPE = new TypeToken<Map<String, Entry>>() {}.getType();
+
+    public static class Entry {
+        public String url;
+        public String sha1;
+        public String file;
+
+        public Entry(String url, String sha1, String file) {
+            this.url = url;
+            this.sha1 = sha1;
+            this.file = file;
+        }
+    }
+
+    private final Path path;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private EmojiManifest(Path path) {
+        this.path = path;
+    }
+
+    public static EmojiManifest load(Path path) {
+        EmojiManifest manifest = new EmojiManifest(path);
+        if (Files.exists(path)) {
+            try (Reader reader = Files.newBufferedReader(path)) {
+                Map<String, Entry> loaded = GSON.fromJson(reader, ENTRIES_TYPE);
+                if (loaded != null) {
+                    loaded.forEach((name, entry) -> {
+                        if (entry != null && entry.url != null && entry.file != null) manifest.entries.put(name, entry);
+                    });
+                }
+            } catch (Exception e) {
+                SlackBridge.LOGGER.warn("Failed to read emoji manifest, emojis will be checked again", e);
+            }
+        }
+        return manifest;
+    }
+
+    public Entry get(String name) {
+        return entries.get(name);
+    }
+
+    public void put(String name, Entry entry) {
+        entries.put(name, entry);
+    }
+
+    public void remove(String name) {
+        entries.remove(name);
+    }
+
+    public Set<String> names() {
+        return entries.keySet();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // Sorted, so the file diffs cleanly between syncs
+    public void save() {
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(tmp)) {
+                GSON.toJson(new TreeMap<>(entries), writer);
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            SlackBridge.LOGGER.error("Failed to save emoji manifest", e);
+        }
+    }
+}
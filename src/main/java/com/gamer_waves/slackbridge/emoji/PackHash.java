@@ -0,0 +1,125 @@
+package com.gamer_waves.slackbridge.emoji;
+
+import com.gamer_waves.slackbridge.SlackBridge;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SHA-1 of a resource pack, hashed once and then kept both in memory and in
+ * a sidecar file next to the pack ({@code <pack>.sha1}), together with the
+ * size and modification time it was computed for. It is reused until either
+ * of those changes, so a restart or a player joining never rehashes the pack.
+ */
+public final class PackHash {
+    private record Stamp(long size, long modifiedMs, String sha1) {}
+
+    private static final Map<Path, Stamp> known = new ConcurrentHashMap<>();
+
+    private PackHash() {}
+
+    /**
+     * Returns the pack's SHA-1 as lowercase hex, hashing it only if nothing cached matches. Null if there is no pack.
+     */
+    public static synchronized String get(Path pack) throws IOException {
+        String cached = getIfCached(pack);
+        if (cached != null) return cached;
+
+        BasicFileAttributes before;
+        try {
+            before = Files.readAttributes(pack, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        String sha1;
+        try (FileChannel channel = FileChannel.open(pack, StandardOpenOption.READ)) {
+            sha1 = sha1(channel);
+        }
+        Stamp stamp = new Stamp(before.size(), before.lastModifiedTime().toMillis(), sha1);
+        known.put(pack, stamp);
+        writeSidecar(pack, stamp);
+        return sha1;
+    }
+
+    /**
+     * The SHA-1 if it is already known for the pack as it is now; never hashes. Cheap enough for the server thread.
+     */
+    public static String getIfCached(Path pack) {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(pack, BasicFileAttributes.class);
+        } catch (IOException e) {
+            return null;
+        }
+        long size = attributes.size();
+        long modified = attributes.lastModifiedTime().toMillis();
+
+        Stamp stamp = known.get(pack);
+        if (stamp == null) {
+            stamp = readSidecar(pack);
+            if (stamp != null) known.put(pack, stamp);
+        }
+        if (stamp == null || stamp.size() != size || stamp.modifiedMs() != modified) return null;
+        return stamp.sha1();
+    }
+
+    private static Path sidecar(Path pack) {
+        return pack.resolveSibling(pack.getFileName() + ".sha1");
+    }
+
+    // "<sha1> <size> <mtime millis>"
+    private static Stamp readSidecar(Path pack) {
+        Path file = sidecar(pack);
+        if (!Files.exists(file)) return null;
+        try {
+            String[] parts = Files.readString(file, StandardCharsets.UTF_8).trim().split(" ");
+            if (parts.length != 3 || parts[0].length() != 40) return null;
+            return new Stamp(Long.parseLong(parts[1]), Long.parseLong(parts[2]), parts[0]);
+        } catch (IOException | NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static void writeSidecar(Path pack, Stamp stamp) {
+        Path file = sidecar(pack);
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.writeString(tmp, stamp.sha1() + " " + stamp.size() + " " + stamp.modifiedMs(), StandardCharsets.UTF_8);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            SlackBridge.LOGGER.warn("Failed to save resource pack hash next to {}", pack, e);
+        }
+    }
+
+    static String sha1(FileChannel channel) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+        ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+        long position = 0;
+        int read;
+        while ((read = channel.read(buffer, position)) > 0) {
+            position += read;
+            buffer.flip();
+            digest.update(buffer);
+            buffer.clear();
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
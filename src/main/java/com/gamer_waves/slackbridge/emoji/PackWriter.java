@@ -0,0 +1,401 @@
+package com.gamer_waves.slackbridge.emoji;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes the resource pack ZIP. Entries are sorted by name and carry a fixed
+ * timestamp, so the same files always give the same bytes (and SHA-1). PNGs
+ * are stored as they are, anything else is deflated, and sources are read
+ * and compressed on all cores while a single thread writes them out in order.
+ *
+ * Each entry records its source's content key (the emoji's SHA-1) as the
+ * entry comment. When the previous pack has an entry with the same name and
+ * key, its bytes are copied over as they are instead of being read and
+ * compressed again, so a rebuild after a few emoji changes costs little
+ * more than a file copy.
+ */
+final class PackWriter {
+    /**
+     * @param key identifies the file's content; null means always read it again
+     */
+    record Source(String name, Path file, String key) {}
+
+    record Result(int entries, int reused, int written, long size) {}
+
+    // An entry of the previous pack, as its central directory describes it
+    private record OldEntry(byte[] name, String key, int method, long crc, long compressedSize, long size, long localHeaderOffset) {}
+
+    private record Encoded(Source source, int method, long crc, long size, byte[] data) {}
+
+    // Either a copy from the old pack or an encode in progress
+    private record Pending(OldEntry copy, Future<Encoded> encoding) {}
+
+    private record CentralEntry(byte[] name, byte[] comment, int method, long crc, long compressedSize, long size, long offset) {}
+
+    private static final int LOCAL_HEADER = 0x04034b50;
+    private static final int CENTRAL_HEADER = 0x02014b50;
+    private static final int END_OF_CENTRAL = 0x06054b50;
+    private static final int ZIP64_END_OF_CENTRAL = 0x06064b50;
+    private static final int ZIP64_LOCATOR = 0x07064b50;
+    private static final int STORED = 0;
+    private static final int DEFLATED = 8;
+    private static final int UTF8_NAMES = 0x0800;
+    private static final int VERSION = 20;
+    private static final int VERSION_ZIP64 = 45;
+    // 1980-02-01 00:00, the earliest date every ZIP reader agrees on
+    private static final int DOS_TIME = 0;
+    private static final int DOS_DATE = (2 << 5) | 1;
+    // Encoded entries that may wait in memory for the writer
+    private static final int WINDOW = 256;
+
+    private PackWriter() {}
+
+    /**
+     * Whether {@code pack} ends in a ZIP end record, i.e. was written to the end. Reads 22 bytes.
+     */
+    static boolean isComplete(Path pack) {
+        try (FileChannel channel = FileChannel.open(pack, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < 22) return false;
+            ByteBuffer eocd = ByteBuffer.allocate(22).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(channel, eocd, length - 22);
+            return eocd.getInt(0) == END_OF_CENTRAL;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Writes {@code sources} to {@code target}, reusing entries of {@code previous} (may be null or missing).
+     */
+    static Result write(List<Source> sources, Path previous, Path target) throws IOException {
+        TreeMap<String, Source> sorted = new TreeMap<>();
+        for (Source source : sources) {
+            sorted.put(source.name(), source);
+        }
+
+        Map<String, OldEntry> old = Map.of();
+        FileChannel oldChannel = null;
+        if (previous != null && Files.exists(previous)) {
+            try {
+                oldChannel = FileChannel.open(previous, StandardOpenOption.READ);
+                old = readCentralDirectory(oldChannel);
+            } catch (IOException e) {
+                // Not one of ours (or damaged); build everything from the sources
+                old = Map.of();
+            }
+        }
+
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors());
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService encoders = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "SlackBridge-PackWriter-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            Output output = new Output(out, oldChannel, sorted.size());
+            // Kept in entry order, so the writer only ever waits for the next entry
+            ArrayDeque<Pending> pending = new ArrayDeque<>();
+            for (Source source : sorted.values()) {
+                OldEntry match = old.get(source.name());
+                if (match != null && source.key() != null && source.key().equals(match.key())) {
+                    pending.add(new Pending(match, null));
+                } else {
+                    pending.add(new Pending(null, encoders.submit(() -> encode(source))));
+                }
+                if (pending.size() >= WINDOW) {
+                    output.next(pending.poll());
+                }
+            }
+            while (!pending.isEmpty()) {
+                output.next(pending.poll());
+            }
+            output.flushCopy();
+            writeCentralDirectory(out, output.central);
+            return new Result(output.central.size(), output.reused, output.central.size() - output.reused, out.size());
+        } finally {
+            encoders.shutdownNow();
+            if (oldChannel != null) oldChannel.close();
+        }
+    }
+
+    /**
+     * Appends entries to the new pack. Reused entries that sit back to back in the old pack (the usual case, since
+     * both are sorted) are collected into one range and copied with a single transfer.
+     */
+    private static final class Output {
+        private final FileChannel out;
+        private final FileChannel oldChannel;
+        final List<CentralEntry> central;
+        int reused;
+        private long copyStart = -1;
+        private long copyEnd = -1;
+        private long copiedBefore;
+
+        Output(FileChannel out, FileChannel oldChannel, int expected) {
+            this.out = out;
+            this.oldChannel = oldChannel;
+            this.central = new ArrayList<>(expected);
+        }
+
+        void next(Pending next) throws IOException {
+            if (next.copy() != null) {
+                copy(next.copy());
+            } else {
+                write(next.encoding());
+            }
+        }
+
+        private void copy(OldEntry entry) throws IOException {
+            long length = 30L + entry.name().length + entry.compressedSize();
+            if (copyStart < 0 || entry.localHeaderOffset() != copyEnd) {
+                flushCopy();
+                copyStart = entry.localHeaderOffset();
+                copyEnd = copyStart;
+                copiedBefore = out.position();
+            }
+            long offset = copiedBefore + (copyEnd - copyStart);
+            copyEnd += length;
+            central.add(new CentralEntry(entry.name(), entry.key().getBytes(StandardCharsets.UTF_8),
+                entry.method(), entry.crc(), entry.compressedSize(), entry.size(), offset));
+            reused++;
+        }
+
+        void flushCopy() throws IOException {
+            if (copyStart < 0) return;
+            long position = copyStart;
+            while (position < copyEnd) {
+                long copied = oldChannel.transferTo(position, copyEnd - position, out);
+                if (copied <= 0) throw new IOException("Previous pack ended early");
+                position += copied;
+            }
+            copyStart = -1;
+        }
+
+        private void write(Future<Encoded> encoding) throws IOException {
+            flushCopy();
+            Encoded encoded;
+            try {
+                encoded = encoding.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while building resource pack", e);
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+            }
+            byte[] name = encoded.source().name().getBytes(StandardCharsets.UTF_8);
+            byte[] comment = encoded.source().key() == null ? new byte[0] : encoded.source().key().getBytes(StandardCharsets.UTF_8);
+            CentralEntry entry = new CentralEntry(name, comment, encoded.method(), encoded.crc(), encoded.data().length, encoded.size(), out.position());
+
+            writeFully(out, localHeader(entry));
+            writeFully(out, ByteBuffer.wrap(encoded.data()));
+            central.add(entry);
+        }
+    }
+
+    private static Encoded encode(Source source) throws IOException {
+        byte[] raw = Files.readAllBytes(source.file());
+        CRC32 crc = new CRC32();
+        crc.update(raw);
+
+        // PNGs are already compressed; deflating them again only costs time
+        if (!source.name().endsWith(".png")) {
+            Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+            try {
+                deflater.setInput(raw);
+                deflater.finish();
+                byte[] buffer = new byte[Math.max(64, raw.length + raw.length / 1000 + 64)];
+                int length = 0;
+                while (!deflater.finished()) {
+                    if (length == buffer.length) buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                    length += deflater.deflate(buffer, length, buffer.length - length);
+                }
+                if (length < raw.length) {
+                    return new Encoded(source, DEFLATED, crc.getValue(), raw.length, Arrays.copyOf(buffer, length));
+                }
+            } finally {
+                deflater.end();
+            }
+        }
+        return new Encoded(source, STORED, crc.getValue(), raw.length, raw);
+    }
+
+    private static ByteBuffer localHeader(CentralEntry entry) {
+        ByteBuffer buffer = ByteBuffer.allocate(30 + entry.name().length).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(LOCAL_HEADER);
+        buffer.putShort((short) VERSION);
+        buffer.putShort((short) UTF8_NAMES);
+        buffer.putShort((short) entry.method());
+        buffer.putShort((short) DOS_TIME);
+        buffer.putShort((short) DOS_DATE);
+        buffer.putInt((int) entry.crc());
+        buffer.putInt((int) entry.compressedSize());
+        buffer.putInt((int) entry.size());
+        buffer.putShort((short) entry.name().length);
+        buffer.putShort((short) 0);
+        buffer.put(entry.name());
+        return buffer.flip();
+    }
+
+    private static void writeCentralDirectory(FileChannel out, List<CentralEntry> entries) throws IOException {
+        long start = out.position();
+        for (CentralEntry entry : entries) {
+            if (entry.offset() > 0xFFFFFFFFL) throw new IOException("Resource pack is larger than 4 GB");
+            ByteBuffer buffer = ByteBuffer.allocate(46 + entry.name().length + entry.comment().length).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(CENTRAL_HEADER);
+            buffer.putShort((short) VERSION);
+            buffer.putShort((short) VERSION);
+            buffer.putShort((short) UTF8_NAMES);
+            buffer.putShort((short) entry.method());
+            buffer.putShort((short) DOS_TIME);
+            buffer.putShort((short) DOS_DATE);
+            buffer.putInt((int) entry.crc());
+            buffer.putInt((int) entry.compressedSize());
+            buffer.putInt((int) entry.size());
+            buffer.putShort((short) entry.name().length);
+            buffer.putShort((short) 0);
+            buffer.putShort((short) entry.comment().length);
+            buffer.putShort((short) 0);
+            buffer.putShort((short) 0);
+            buffer.putInt(0);
+            buffer.putInt((int) entry.offset());
+            buffer.put(entry.name());
+            buffer.put(entry.comment());
+            writeFully(out, buffer.flip());
+        }
+        long end = out.position();
+        long size = end - start;
+        if (start > 0xFFFFFFFFL || size > 0xFFFFFFFFL) throw new IOException("Resource pack is larger than 4 GB");
+
+        // More than 65535 entries only fit in the ZIP64 end records
+        boolean zip64 = entries.size() >= 0xFFFF;
+        if (zip64) {
+            ByteBuffer record = ByteBuffer.allocate(56 + 20).order(ByteOrder.LITTLE_ENDIAN);
+            record.putInt(ZIP64_END_OF_CENTRAL);
+            record.putLong(44);
+            record.putShort((short) VERSION_ZIP64);
+            record.putShort((short) VERSION_ZIP64);
+            record.putInt(0);
+            record.putInt(0);
+            record.putLong(entries.size());
+            record.putLong(entries.size());
+            record.putLong(size);
+            record.putLong(start);
+            record.putInt(ZIP64_LOCATOR);
+            record.putInt(0);
+            record.putLong(end);
+            record.putInt(1);
+            writeFully(out, record.flip());
+        }
+
+        ByteBuffer eocd = ByteBuffer.allocate(22).order(ByteOrder.LITTLE_ENDIAN);
+        eocd.putInt(END_OF_CENTRAL);
+        eocd.putShort((short) 0);
+        eocd.putShort((short) 0);
+        eocd.putShort((short) (zip64 ? 0xFFFF : entries.size()));
+        eocd.putShort((short) (zip64 ? 0xFFFF : entries.size()));
+        eocd.putInt((int) size);
+        eocd.putInt((int) start);
+        eocd.putShort((short) 0);
+        writeFully(out, eocd.flip());
+    }
+
+    /**
+     * Entries of a pack this class wrote, by name. Only entries with a content key are returned.
+     */
+    private static Map<String, OldEntry> readCentralDirectory(FileChannel channel) throws IOException {
+        long length = channel.size();
+        if (length < 22) throw new IOException("Too short for a ZIP");
+        // Our packs have no archive comment, so the end record is always the last 22 bytes
+        ByteBuffer eocd = ByteBuffer.allocate(22).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(channel, eocd, length - 22);
+        if (eocd.getInt(0) != END_OF_CENTRAL) throw new IOException("No end of central directory");
+        long count = eocd.getShort(10) & 0xFFFF;
+        long size = eocd.getInt(12) & 0xFFFFFFFFL;
+        long start = eocd.getInt(16) & 0xFFFFFFFFL;
+
+        if (count == 0xFFFF && length >= 22 + 20 + 56) {
+            ByteBuffer locator = ByteBuffer.allocate(20).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(channel, locator, length - 22 - 20);
+            if (locator.getInt(0) == ZIP64_LOCATOR) {
+                ByteBuffer record = ByteBuffer.allocate(56).order(ByteOrder.LITTLE_ENDIAN);
+                readFully(channel, record, locator.getLong(8));
+                if (record.getInt(0) != ZIP64_END_OF_CENTRAL) throw new IOException("Corrupt ZIP64 end record");
+                count = record.getLong(32);
+                size = record.getLong(40);
+                start = record.getLong(48);
+            }
+        }
+        if (size > Integer.MAX_VALUE || start + size > length) throw new IOException("Corrupt central directory");
+
+        ByteBuffer directory = ByteBuffer.allocate((int) size).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(channel, directory, start);
+        directory.flip();
+
+        Map<String, OldEntry> entries = new HashMap<>();
+        for (long i = 0; i < count; i++) {
+            if (directory.remaining() < 46 || directory.getInt() != CENTRAL_HEADER) throw new IOException("Corrupt central directory");
+            int madeBy = directory.getShort() & 0xFFFF;
+            directory.position(directory.position() + 4);
+            int method = directory.getShort() & 0xFFFF;
+            directory.position(directory.position() + 4);
+            long crc = directory.getInt() & 0xFFFFFFFFL;
+            long compressedSize = directory.getInt() & 0xFFFFFFFFL;
+            long uncompressedSize = directory.getInt() & 0xFFFFFFFFL;
+            int nameLength = directory.getShort() & 0xFFFF;
+            int extraLength = directory.getShort() & 0xFFFF;
+            int commentLength = directory.getShort() & 0xFFFF;
+            directory.position(directory.position() + 8);
+            long offset = directory.getInt() & 0xFFFFFFFFL;
+
+            byte[] name = new byte[nameLength];
+            directory.get(name);
+            directory.position(directory.position() + extraLength);
+            byte[] comment = new byte[commentLength];
+            directory.get(comment);
+            // Entries written here have no extra fields, which fixes the local header at 30 bytes plus the name
+            if (madeBy == VERSION && commentLength > 0 && extraLength == 0) {
+                entries.put(new String(name, StandardCharsets.UTF_8), new OldEntry(name, new String(comment, StandardCharsets.UTF_8),
+                    method, crc, compressedSize, uncompressedSize, offset));
+            }
+        }
+        return entries;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) throw new IOException("Unexpected end of ZIP");
+            position += read;
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
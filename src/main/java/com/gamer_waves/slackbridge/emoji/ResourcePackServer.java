@@ -1,33 +1,132 @@
 package com.gamer_waves.slackbridge.emoji;
 
 import com.gamer_waves.slackbridge.SlackBridge;
+import com.gamer_waves.slackbridge.util.TokenBucket;
+import com.sun.net.httpserver.Headers;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpServer;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.net.InetAddress;
 import java.net.InetSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Serves the emoji resource pack over HTTP. Downloads are handled by a
+ * fixed pool of worker threads and streamed straight from the file with
+ * {@link FileChannel#transferTo}, so heap use doesn't depend on the size of
+ * the pack or on how many players download it at once. Each request opens
+ * its own channel, so a pack rebuilt mid-download doesn't corrupt the
+ * download in progress.
+ * <p>
+ * Responses carry a strong ETag (the pack's SHA-1) and Last-Modified, so
+ * clients that already have the pack get a 304, and a single {@code Range}
+ * (optionally guarded by {@code If-Range}) lets an interrupted download resume.
+ * <p>
+ * Only {@link Limits#maxDownloads} bodies are sent at once; up to
+ * {@link Limits#maxQueued} more wait their turn, and anything beyond that is
+ * told to come back later with a 503 and {@code Retry-After}. Bandwidth is
+ * shaped with token buckets, one shared by all downloads and one per client
+ * address, so a join spike can't saturate the uplink the game is using.
+ */
 public class ResourcePackServer {
+    private static final long MAX_TRANSFER_CHUNK = 8L * 1024 * 1024;
+    private static final int MAX_WRITE_CHUNK = 64 * 1024;
+    private static final int MIN_BURST_BYTES = 16 * 1024;
+    private static final long QUEUE_WAIT_SECONDS = 60;
+    private static final int RETRY_AFTER_SECONDS = 10;
+    private static final DateTimeFormatter HTTP_DATE = DateTimeFormatter.RFC_1123_DATE_TIME.withZone(ZoneOffset.UTC);
+
+    /**
+     * Download limits. A bandwidth of 0 means unlimited.
+     */
+    public record Limits(int maxDownloads, int maxQueued, long maxBytesPerSecond, long maxBytesPerSecondPerClient) {}
+
+    private static final class Client {
+        final TokenBucket bucket;
+        int downloads; // Guarded by the clients map
+
+        Client(TokenBucket bucket) {
+            this.bucket = bucket;
+        }
+    }
+
     private HttpServer server;
+    private ExecutorService workers;
     private final int port;
-    private Path resourcePackPath;
+    private final Limits limits;
+    private final Semaphore admitted;  // Downloading or queued
+    private final Semaphore downloading;
+    private final TokenBucket globalBucket;
+    private final Map<InetAddress, Client> clients = new HashMap<>();
+    private volatile Path resourcePackPath;
+
+    /**
+     * What the validators are computed from. The hash comes from {@link PackHash}, so it isn't recomputed per request.
+     */
+    private record PackInfo(long size, long lastModifiedMs, String sha1) {
+        String etag() {
+            return '"' + sha1 + '"';
+        }
 
-    public ResourcePackServer(int port) {
+        String lastModified() {
+            return HTTP_DATE.format(Instant.ofEpochMilli(lastModifiedMs));
+        }
+    }
+
+    private record ByteRange(long start, long end) {
+        long length() {
+            return end - start + 1;
+        }
+    }
+
+    public ResourcePackServer(int port, Limits limits) {
         this.port = port;
+        int maxDownloads = Math.max(1, limits.maxDownloads());
+        int maxQueued = Math.max(0, limits.maxQueued());
+        this.limits = new Limits(maxDownloads, maxQueued, limits.maxBytesPerSecond(), limits.maxBytesPerSecondPerClient());
+        this.admitted = new Semaphore(maxDownloads + maxQueued);
+        this.downloading = new Semaphore(maxDownloads, true);
+        this.globalBucket = newBucket(limits.maxBytesPerSecond());
+    }
+
+    private static TokenBucket newBucket(long bytesPerSecond) {
+        if (bytesPerSecond <= 0) return null;
+        return new TokenBucket(Math.max(MIN_BURST_BYTES, bytesPerSecond / 4), bytesPerSecond);
     }
 
     public void start(Path resourcePackPath) {
         this.resourcePackPath = resourcePackPath;
-        
+
         try {
             server = HttpServer.create(new InetSocketAddress(port), 0);
             server.createContext("/resourcepack.zip", this::handleRequest);
-            server.setExecutor(null);
+            // One thread per download or queued request, plus a few for cheap 304/HEAD/503 replies
+            workers = newWorkerPool(limits.maxDownloads() + limits.maxQueued() + 2);
+            server.setExecutor(workers);
             server.start();
-            
+
             SlackBridge.LOGGER.info("Resource pack server started on port {}", port);
             SlackBridge.LOGGER.info("Resource pack URL: http://localhost:{}/resourcepack.zip", port);
         } catch (IOException e) {
@@ -35,23 +134,258 @@ public class ResourcePackServer {
         }
     }
 
+    private static ExecutorService newWorkerPool(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), task -> {
+            Thread thread = new Thread(task, "SlackBridge-PackServer-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
     private void handleRequest(HttpExchange exchange) throws IOException {
-        if (resourcePackPath == null || !Files.exists(resourcePackPath)) {
-            exchange.sendResponseHeaders(404, 0);
-            exchange.close();
-            return;
+        try (exchange) {
+            String method = exchange.getRequestMethod();
+            boolean head = method.equalsIgnoreCase("HEAD");
+            if (!head && !method.equalsIgnoreCase("GET")) {
+                exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            OpenPack pack = openPack();
+            if (pack == null) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+
+            try (FileChannel channel = pack.channel()) {
+                PackInfo info = pack.info();
+                long size = info.size();
+                Headers headers = exchange.getResponseHeaders();
+                headers.set("Content-Type", "application/zip");
+                headers.set("Accept-Ranges", "bytes");
+                headers.set("ETag", info.etag());
+                headers.set("Last-Modified", info.lastModified());
+                headers.set("Cache-Control", "no-cache");
+
+                Headers request = exchange.getRequestHeaders();
+                if (notModified(request, info)) {
+                    exchange.sendResponseHeaders(304, -1);
+                    return;
+                }
+
+                ByteRange range = null;
+                String rangeHeader = request.getFirst("Range");
+                if (rangeHeader != null && ifRangeMatches(request.getFirst("If-Range"), info)) {
+                    range = parseRange(rangeHeader, size);
+                    if (range == null) {
+                        headers.set("Content-Range", "bytes */" + size);
+                        exchange.sendResponseHeaders(416, -1);
+                        return;
+                    }
+                    if (range.start() == 0 && range.end() == size - 1) range = null;
+                }
+
+                long start = range == null ? 0 : range.start();
+                long length = range == null ? size : range.length();
+                int status = range == null ? 200 : 206;
+                if (range != null) {
+                    headers.set("Content-Range", "bytes " + range.start() + "-" + range.end() + "/" + size);
+                }
+                if (head) {
+                    headers.set("Content-Length", Long.toString(length));
+                    exchange.sendResponseHeaders(status, -1);
+                    return;
+                }
+
+                if (!admitted.tryAcquire()) {
+                    tooBusy(exchange);
+                    return;
+                }
+                try {
+                    if (!downloading.tryAcquire(QUEUE_WAIT_SECONDS, TimeUnit.SECONDS)) {
+                        tooBusy(exchange);
+                        return;
+                    }
+                    try {
+                        exchange.sendResponseHeaders(status, length == 0 ? -1 : length);
+                        sendBody(exchange, channel, start, length);
+                    } finally {
+                        downloading.release();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    admitted.release();
+                }
+            }
+
+            SlackBridge.LOGGER.debug("Served resource pack to {}", exchange.getRemoteAddress());
         }
+    }
+
+    private static void tooBusy(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().remove("ETag");
+        exchange.getResponseHeaders().remove("Last-Modified");
+        exchange.getResponseHeaders().remove("Content-Range");
+        exchange.getResponseHeaders().set("Retry-After", Integer.toString(RETRY_AFTER_SECONDS));
+        exchange.sendResponseHeaders(503, -1);
+        SlackBridge.LOGGER.debug("Resource pack server busy, turned away {}", exchange.getRemoteAddress());
+    }
 
-        byte[] data = Files.readAllBytes(resourcePackPath);
-        
-        exchange.getResponseHeaders().set("Content-Type", "application/zip");
-        exchange.sendResponseHeaders(200, data.length);
-        
+    private void sendBody(HttpExchange exchange, FileChannel channel, long start, long length) throws IOException {
+        InetAddress address = exchange.getRemoteAddress().getAddress();
+        Client client = acquireClient(address);
         try (OutputStream os = exchange.getResponseBody()) {
-            os.write(data);
+            WritableByteChannel target = Channels.newChannel(os);
+            if (globalBucket != null || client.bucket != null) {
+                target = new ThrottledChannel(target, writeChunk(), client.bucket, globalBucket);
+            }
+            transfer(channel, start, length, target);
+        } finally {
+            releaseClient(address, client);
+        }
+    }
+
+    // A write must fit in every bucket, or it could never be granted
+    private int writeChunk() {
+        long chunk = MAX_WRITE_CHUNK;
+        if (limits.maxBytesPerSecond() > 0) chunk = Math.min(chunk, Math.max(MIN_BURST_BYTES, limits.maxBytesPerSecond() / 4));
+        if (limits.maxBytesPerSecondPerClient() > 0) {
+            chunk = Math.min(chunk, Math.max(MIN_BURST_BYTES, limits.maxBytesPerSecondPerClient() / 4));
+        }
+        return (int) chunk;
+    }
+
+    // Concurrent downloads from one address share its bucket; it's dropped when the last one finishes
+    private Client acquireClient(InetAddress address) {
+        synchronized (clients) {
+            Client client = clients.computeIfAbsent(address, a -> new Client(newBucket(limits.maxBytesPerSecondPerClient())));
+            client.downloads++;
+            return client;
+        }
+    }
+
+    private void releaseClient(InetAddress address, Client client) {
+        synchronized (clients) {
+            if (--client.downloads == 0) clients.remove(address, client);
+        }
+    }
+
+    // If-None-Match wins over If-Modified-Since when both are sent (RFC 9110)
+    private static boolean notModified(Headers request, PackInfo info) {
+        String ifNoneMatch = request.getFirst("If-None-Match");
+        if (ifNoneMatch != null) {
+            for (String tag : ifNoneMatch.split(",")) {
+                String trimmed = tag.trim();
+                if (trimmed.startsWith("W/")) trimmed = trimmed.substring(2);
+                if (trimmed.equals("*") || trimmed.equals(info.etag())) return true;
+            }
+            return false;
+        }
+        String ifModifiedSince = request.getFirst("If-Modified-Since");
+        if (ifModifiedSince == null) return false;
+        try {
+            long since = Instant.from(HTTP_DATE.parse(ifModifiedSince.trim())).getEpochSecond();
+            return info.lastModifiedMs() / 1000 <= since;
+        } catch (DateTimeException e) {
+            return false;
+        }
+    }
+
+    // A stale If-Range means the client's partial copy is of an older pack, so it gets the whole file
+    private static boolean ifRangeMatches(String ifRange, PackInfo info) {
+        if (ifRange == null) return true;
+        String value = ifRange.trim();
+        if (value.startsWith("\"")) return value.equals(info.etag());
+        return value.equals(info.lastModified());
+    }
+
+    /**
+     * Parses a single {@code bytes=} range. Returns null if it can't be satisfied; anything this
+     * doesn't understand (multiple ranges, other units, last-pos before first-pos) is ignored and
+     * served as the whole file, as RFC 9110 asks for invalid ranges.
+     */
+    private static ByteRange parseRange(String header, long size) {
+        String value = header.trim();
+        if (!value.startsWith("bytes=") || value.indexOf(',') >= 0) return new ByteRange(0, size - 1);
+        String spec = value.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) return new ByteRange(0, size - 1);
+        try {
+            long start;
+            long end;
+            if (dash == 0) {
+                long suffix = Long.parseLong(spec.substring(1));
+                if (suffix <= 0) return null;
+                start = Math.max(0, size - suffix);
+                end = size - 1;
+            } else {
+                start = Long.parseLong(spec.substring(0, dash));
+                end = dash == spec.length() - 1 ? size - 1 : Math.min(Long.parseLong(spec.substring(dash + 1)), size - 1);
+            }
+            if (start >= size) return null;
+            if (start > end) return new ByteRange(0, size - 1);
+            return new ByteRange(start, end);
+        } catch (NumberFormatException e) {
+            return new ByteRange(0, size - 1);
+        }
+    }
+
+    private record OpenPack(FileChannel channel, PackInfo info) {}
+
+    /**
+     * Opens the pack together with validators that describe the opened bytes. A rebuilt pack can be moved into
+     * place at any moment, so the path is checked to be the same file before and after opening and hashing;
+     * if it changed in between, the open is retried. Returns null if there is no pack.
+     */
+    private OpenPack openPack() throws IOException {
+        Path path = resourcePackPath;
+        if (path == null) return null;
+        for (int attempt = 0; attempt < 3; attempt++) {
+            BasicFileAttributes before;
+            FileChannel channel;
+            try {
+                before = Files.readAttributes(path, BasicFileAttributes.class);
+                channel = FileChannel.open(path, StandardOpenOption.READ);
+            } catch (NoSuchFileException e) {
+                return null;
+            }
+            try {
+                String sha1 = PackHash.get(path);
+                BasicFileAttributes after = Files.readAttributes(path, BasicFileAttributes.class);
+                if (sha1 != null && sameFile(before, after) && channel.size() == after.size()) {
+                    return new OpenPack(channel, new PackInfo(after.size(), after.lastModifiedTime().toMillis(), sha1));
+                }
+            } catch (NoSuchFileException e) {
+                // Replaced mid-way; try again
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+            channel.close();
+        }
+        throw new IOException("Resource pack kept changing while it was being opened");
+    }
+
+    private static boolean sameFile(BasicFileAttributes a, BasicFileAttributes b) {
+        return Objects.equals(a.fileKey(), b.fileKey())
+            && a.size() == b.size()
+            && a.lastModifiedTime().equals(b.lastModifiedTime());
+    }
+
+    // transferTo may move less than asked for, so loop until the range is sent
+    private static void transfer(FileChannel channel, long position, long count, WritableByteChannel target) throws IOException {
+        long end = position + count;
+        while (position < end) {
+            long sent = channel.transferTo(position, Math.min(end - position, MAX_TRANSFER_CHUNK), target);
+            if (sent <= 0) {
+                if (position >= channel.size()) throw new IOException("Resource pack shrank while being served");
+                continue;
+            }
+            position += sent;
         }
-        
-        SlackBridge.LOGGER.debug("Served resource pack to {}", exchange.getRemoteAddress());
     }
 
     public void stop() {
@@ -59,6 +393,9 @@ public class ResourcePackServer {
             server.stop(0);
             SlackBridge.LOGGER.info("Resource pack server stopped");
         }
+        if (workers != null) {
+            workers.shutdownNow();
+        }
     }
 
     public String getUrl(String serverIp) {
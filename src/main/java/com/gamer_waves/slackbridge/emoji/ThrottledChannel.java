@@ -0,0 +1,67 @@
+package com.gamer_waves.slackbridge.emoji;
+
+import com.gamer_waves.slackbridge.util.TokenBucket;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Paces writes to a response body against one or more token buckets of
+ * bytes (per client and global). A write that would overdraw a bucket waits
+ * for it to refill, so a download never goes faster than the slowest bucket.
+ */
+class ThrottledChannel implements WritableByteChannel {
+    private final WritableByteChannel target;
+    private final TokenBucket[] buckets;
+    private final int maxChunk;
+
+    /**
+     * @param buckets null entries mean "no limit"
+     */
+    ThrottledChannel(WritableByteChannel target, int maxChunk, TokenBucket... buckets) {
+        this.target = target;
+        this.maxChunk = Math.max(1, maxChunk);
+        this.buckets = buckets;
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        int chunk = Math.min(src.remaining(), maxChunk);
+        if (chunk <= 0) return 0;
+        for (TokenBucket bucket : buckets) {
+            if (bucket != null) acquire(bucket, chunk);
+        }
+
+        int limit = src.limit();
+        src.limit(src.position() + chunk);
+        try {
+            int written = 0;
+            while (src.hasRemaining()) {
+                written += target.write(src);
+            }
+            return written;
+        } finally {
+            src.limit(limit);
+        }
+    }
+
+    private static void acquire(TokenBucket bucket, int bytes) throws IOException {
+        while (!bucket.tryAcquire(bytes)) {
+            LockSupport.parkNanos(Math.max(1_000_000L, bucket.nanosUntilAvailable(bytes)));
+            if (Thread.interrupted()) throw new InterruptedIOException("Download interrupted");
+        }
+    }
+
+    @Override
+    public boolean isOpen() {
+        return target.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        target.close();
+    }
+}
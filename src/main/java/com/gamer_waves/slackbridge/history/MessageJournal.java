@@ -0,0 +1,261 @@
+package com.gamer_waves.slackbridge.history;
+
+import com.gamer_waves.slackbridge.SlackBridge;
+import com.gamer_waves.slackbridge.inbound.InboundSequencer;
+import com.gamer_waves.slackbridge.storage.SegmentedLog;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Append-only journal of every bridged message, in both directions, stored
+ * in a memory-mapped {@link SegmentedLog}. Only a {@code ts} to position
+ * index and the positions of the most recent records live on the heap;
+ * message bodies are read back from the mapped segments on demand.
+ * <p>
+ * An edit appends a new version and flags the old one as superseded; a
+ * delete flags the record in place. Whole segments older than the retention
+ * period are dropped.
+ */
+public class MessageJournal implements Closeable {
+    public enum Source { MINECRAFT, SLACK }
+
+    /**
+     * One bridged message. {@code uuid} is the player who sent it, or the
+     * Slack author's linked player; null if there is none.
+     */
+    public record Entry(Source source, String ts, long createdAt, String uuid, String name, String text, boolean edited) {}
+
+    private static final int SEGMENT_SIZE = 1024 * 1024;
+    private static final int FORMAT_VERSION = 1;
+    private static final int FLAG_SUPERSEDED = 1;
+    private static final int FLAG_DELETED = 2;
+    private static final int RECENT_POSITIONS = 256;
+    private static final long RETENTION_CHECK_INTERVAL_MS = 60 * 60 * 1000L;
+
+    private final SegmentedLog log;
+    private final TsIndex index = new TsIndex(1024);
+    private final long[] recent = new long[RECENT_POSITIONS]; // Ring of the newest record positions
+    private int recentHead;
+    private int recentSize;
+    private final long retentionMs;
+    private long lastRetentionCheck;
+
+    private MessageJournal(SegmentedLog log, long retentionMs) {
+        this.log = log;
+        this.retentionMs = retentionMs;
+    }
+
+    public static MessageJournal open(Path dir, long retentionMs) throws IOException {
+        MessageJournal journal = new MessageJournal(new SegmentedLog(dir, SEGMENT_SIZE), retentionMs);
+        journal.rebuild();
+        journal.applyRetention(System.currentTimeMillis());
+        return journal;
+    }
+
+    // One sequential pass over the mapped segments; payloads are decoded and dropped straight away
+    private void rebuild() throws IOException {
+        log.read(log.startPosition(), (position, flags, payload) -> {
+            if ((flags & FLAG_SUPERSEDED) == 0) {
+                Entry entry = decodeOrNull(payload);
+                if (entry != null && (flags & FLAG_DELETED) == 0) index.put(key(entry.ts()), position);
+                remember(position);
+            }
+            return true;
+        });
+    }
+
+    public synchronized void record(Source source, String ts, String uuid, String name, String text) {
+        if (ts == null) return;
+        append(new Entry(source, ts, System.currentTimeMillis(), uuid, name, text == null ? "" : text, false));
+    }
+
+    /**
+     * Stores a new version of a message, unless the text is unchanged. Returns the previous version,
+     * or null if the message was never bridged.
+     */
+    public synchronized Entry recordEdit(String ts, String newText) {
+        long position = index.get(key(ts));
+        if (position == TsIndex.MISSING) return null;
+        Entry previous = readAt(position);
+        if (previous == null) return null;
+
+        // Unfurling a link also sends message_changed; same text isn't an edit
+        String text = newText == null ? "" : newText;
+        if (text.equals(previous.text())) return previous;
+
+        append(new Entry(previous.source(), ts, previous.createdAt(), previous.uuid(), previous.name(), text, true));
+        setFlags(position, FLAG_SUPERSEDED);
+        return previous;
+    }
+
+    /**
+     * Marks a message as deleted. Returns it, or null if it was never bridged.
+     */
+    public synchronized Entry recordDelete(String ts) {
+        long key = key(ts);
+        long position = index.get(key);
+        if (position == TsIndex.MISSING) return null;
+        Entry deleted = readAt(position);
+        setFlags(position, FLAG_DELETED);
+        index.remove(key);
+        return deleted;
+    }
+
+    /**
+     * Up to {@code limit} of the newest live messages, oldest first. Reads at most the recent ring, never the whole journal.
+     */
+    public synchronized List<Entry> tail(int limit) {
+        long start = log.startPosition();
+        long[] positions = new long[recentSize];
+        int count = 0;
+        while (count < recentSize) {
+            long position = recent[Math.floorMod(recentHead - 1 - count, RECENT_POSITIONS)];
+            if (position < start) break;
+            positions[count++] = position;
+        }
+
+        // One pass, so each segment is mapped once however many of its records are wanted
+        List<Entry> live = new ArrayList<>();
+        try {
+            log.readAt(Arrays.copyOf(positions, count), (p, flags, payload) -> {
+                if ((flags & (FLAG_SUPERSEDED | FLAG_DELETED)) == 0) {
+                    Entry entry = decodeOrNull(payload);
+                    if (entry != null) live.add(entry);
+                }
+                return true;
+            });
+        } catch (IOException e) {
+            SlackBridge.LOGGER.debug("Failed to read message journal: {}", e.getMessage());
+        }
+        // Visited oldest first, so the newest live entries are at the end
+        List<Entry> entries = new ArrayList<>(live.subList(Math.max(0, live.size() - limit), live.size()));
+        // An edit is appended later than the original, so order by Slack ts rather than by position
+        entries.sort(Comparator.comparingLong(entry -> key(entry.ts())));
+        return entries;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        log.close();
+    }
+
+    private void append(Entry entry) {
+        try {
+            long position = log.append(encode(entry));
+            index.put(key(entry.ts()), position);
+            remember(position);
+        } catch (IOException | IllegalArgumentException e) {
+            SlackBridge.LOGGER.warn("Failed to journal Slack message {}: {}", entry.ts(), e.getMessage());
+        }
+
+        long now = System.currentTimeMillis();
+        if (now - lastRetentionCheck >= RETENTION_CHECK_INTERVAL_MS) {
+            applyRetention(now);
+        }
+    }
+
+    // Finds the first record young enough to keep; segments wholly before it are deleted
+    private void applyRetention(long now) {
+        lastRetentionCheck = now;
+        if (retentionMs <= 0) return;
+
+        long cutoff = now - retentionMs;
+        long before = log.startPosition();
+        long[] firstKept = {log.endPosition()};
+        try {
+            log.read(before, (position, flags, payload) -> {
+                Entry entry = decodeOrNull(payload);
+                if (entry != null && entry.createdAt() >= cutoff) {
+                    firstKept[0] = position;
+                    return false;
+                }
+                return true;
+            });
+        } catch (IOException e) {
+            return;
+        }
+        log.deleteBefore(firstKept[0]);
+        long start = log.startPosition();
+        if (start > before) {
+            index.removeBefore(start);
+            SlackBridge.LOGGER.info("Dropped message history older than {} days", retentionMs / (24 * 60 * 60 * 1000L));
+        }
+    }
+
+    private void remember(long position) {
+        recent[recentHead] = position;
+        recentHead = (recentHead + 1) % RECENT_POSITIONS;
+        recentSize = Math.min(recentSize + 1, RECENT_POSITIONS);
+    }
+
+    private Entry readAt(long position) {
+        Entry[] found = new Entry[1];
+        try {
+            log.read(position, (p, flags, payload) -> {
+                found[0] = decodeOrNull(payload);
+                return false;
+            });
+        } catch (IOException e) {
+            SlackBridge.LOGGER.debug("Failed to read message journal at {}: {}", position, e.getMessage());
+        }
+        return found[0];
+    }
+
+    private void setFlags(long position, int flags) {
+        try {
+            log.setFlags(position, flags);
+        } catch (IOException e) {
+            SlackBridge.LOGGER.debug("Failed to flag message journal entry {}: {}", position, e.getMessage());
+        }
+    }
+
+    private static long key(String ts) {
+        return InboundSequencer.parseTs(ts);
+    }
+
+    private static byte[] encode(Entry entry) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + entry.text().length());
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(FORMAT_VERSION);
+        out.writeByte(entry.source().ordinal());
+        out.writeBoolean(entry.edited());
+        out.writeLong(entry.createdAt());
+        out.writeUTF(entry.ts());
+        out.writeUTF(entry.uuid() == null ? "" : entry.uuid());
+        out.writeUTF(entry.name() == null ? "" : entry.name());
+        byte[] text = entry.text().getBytes(StandardCharsets.UTF_8);
+        out.writeInt(text.length);
+        out.write(text);
+        return bytes.toByteArray();
+    }
+
+    private static Entry decodeOrNull(byte[] payload) {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+            if (in.readUnsignedByte() != FORMAT_VERSION) return null;
+            Source source = Source.values()[in.readUnsignedByte()];
+            boolean edited = in.readBoolean();
+            long createdAt = in.readLong();
+            String ts = in.readUTF();
+            String uuid = in.readUTF();
+            String name = in.readUTF();
+            byte[] text = new byte[in.readInt()];
+            in.readFully(text);
+            return new Entry(source, ts, createdAt, uuid.isEmpty() ? null : uuid, name,
+                    new String(text, StandardCharsets.UTF_8), edited);
+        } catch (IOException | ArrayIndexOutOfBoundsException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.gamer_waves.slackbridge.history;
+
+/**
+ * Slack {@code ts} (as microseconds) to journal position, in two primitive
+ * arrays with open addressing. About 16 bytes per live message, no boxing.
+ * Not thread-safe; {@link MessageJournal} guards it.
+ */
+class TsIndex {
+    static final long MISSING = -1L;
+    private static final long EMPTY = 0L; // ts 0 is never a real message
+
+    private long[] keys;
+    private long[] values;
+    private int size;
+
+    TsIndex(int initialCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(16, initialCapacity * 2 - 1)) << 1;
+        keys = new long[capacity];
+        values = new long[capacity];
+    }
+
+    long get(long ts) {
+        int slot = find(keys, ts);
+        return keys[slot] == ts ? values[slot] : MISSING;
+    }
+
+    void put(long ts, long position) {
+        if (ts == EMPTY) return;
+        int slot = find(keys, ts);
+        if (keys[slot] != ts) {
+            if ((size + 1) * 2 > keys.length) {
+                resize(keys.length * 2);
+                slot = find(keys, ts);
+            }
+            keys[slot] = ts;
+            size++;
+        }
+        values[slot] = position;
+    }
+
+    void remove(long ts) {
+        int slot = find(keys, ts);
+        if (keys[slot] != ts || ts == EMPTY) return;
+        deleteSlot(slot);
+        size--;
+    }
+
+    /**
+     * Drops every entry that points before {@code position}, after old segments are deleted.
+     */
+    void removeBefore(long position) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        keys = new long[oldKeys.length];
+        values = new long[oldValues.length];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY && oldValues[i] >= position) put(oldKeys[i], oldValues[i]);
+        }
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        keys = new long[capacity];
+        values = new long[capacity];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = find(keys, oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    // Backward-shift deletion keeps probe chains intact without tombstones
+    private void deleteSlot(int hole) {
+        int mask = keys.length - 1;
+        int slot = hole;
+        while (true) {
+            slot = (slot + 1) & mask;
+            long key = keys[slot];
+            if (key == EMPTY) break;
+            int home = home(key, mask);
+            boolean between = hole <= slot ? (hole < home && home <= slot) : (hole < home || home <= slot);
+            if (!between) {
+                keys[hole] = key;
+                values[hole] = values[slot];
+                hole = slot;
+            }
+        }
+        keys[hole] = EMPTY;
+    }
+
+    private static int find(long[] table, long key) {
+        int mask = table.length - 1;
+        int slot = home(key, mask);
+        while (table[slot] != EMPTY && table[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int home(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,65 @@
+package com.gamer_waves.slackbridge.inbound;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the messages missed while the server was down into a short
+ * "while you were away" summary. conversations.history pages newest first,
+ * so only the newest {@code maxMessages} are kept; older ones are just
+ * counted. Memory stays bounded however long the outage was.
+ */
+public class AwayDigest {
+    public record Entry(String ts, String userId, String text) {}
+
+    private final int maxMessages;
+    private final ArrayDeque<Entry> kept = new ArrayDeque<>();
+    private int total;
+    private boolean incomplete;
+
+    public AwayDigest(int maxMessages) {
+        this.maxMessages = Math.max(1, maxMessages);
+    }
+
+    /**
+     * Adds the next (older) message. Returns false once no more need to be kept.
+     */
+    public boolean offer(Entry entry) {
+        total++;
+        if (kept.size() < maxMessages) {
+            kept.addFirst(entry);
+        }
+        return kept.size() < maxMessages;
+    }
+
+    /**
+     * Paging stopped before the end of the history, so the total is a lower bound.
+     */
+    public void markIncomplete() {
+        incomplete = true;
+    }
+
+    public boolean isEmpty() {
+        return total == 0;
+    }
+
+    public String header() {
+        String count = (incomplete ? "more than " : "") + total + (total == 1 ? " message" : " messages");
+        return "[Slack] While you were away (" + count + "):";
+    }
+
+    /**
+     * Messages that were counted but not kept, or 0.
+     */
+    public int omitted() {
+        return total - kept.size();
+    }
+
+    /**
+     * The kept messages, oldest first.
+     */
+    public List<Entry> entries() {
+        return new ArrayList<>(kept);
+    }
+}
@@ -0,0 +1,72 @@
+package com.gamer_waves.slackbridge.inbound;
+
+import com.gamer_waves.slackbridge.SlackBridge;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * The {@code ts} of the last Slack message shown in game, kept on disk so the
+ * next startup knows where to backfill from. Only moves forward, and is
+ * written (atomically, via a temp file) only when it has changed.
+ */
+public class DeliveryCursor {
+    private final Path file;
+    private final String loadedTs;
+    private String ts;
+    private String savedTs;
+
+    private DeliveryCursor(Path file, String ts) {
+        this.file = file;
+        this.loadedTs = ts;
+        this.ts = ts;
+        this.savedTs = ts;
+    }
+
+    public static DeliveryCursor open(Path file) {
+        String ts = null;
+        if (Files.exists(file)) {
+            try {
+                ts = Files.readString(file, StandardCharsets.UTF_8).trim();
+                if (ts.isEmpty() || InboundSequencer.parseTs(ts) == 0L) ts = null;
+            } catch (IOException e) {
+                SlackBridge.LOGGER.warn("Failed to read Slack delivery cursor, skipping backfill", e);
+            }
+        }
+        return new DeliveryCursor(file, ts);
+    }
+
+    /**
+     * Where the previous run stopped, or null if there was no previous run.
+     */
+    public String loadedTs() {
+        return loadedTs;
+    }
+
+    public synchronized void advance(String delivered) {
+        if (delivered == null) return;
+        if (ts == null || InboundSequencer.parseTs(delivered) > InboundSequencer.parseTs(ts)) {
+            ts = delivered;
+        }
+    }
+
+    public void save() {
+        String current;
+        synchronized (this) {
+            current = ts;
+            if (current == null || current.equals(savedTs)) return;
+            savedTs = current;
+        }
+        try {
+            Files.createDirectories(file.getParent());
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.writeString(tmp, current, StandardCharsets.UTF_8);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            SlackBridge.LOGGER.warn("Failed to save Slack delivery cursor", e);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.gamer_waves.slackbridge.inbound;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Remembers the last {@code capacity} event keys (channel + message ts) so a
+ * Socket Mode retry or a redelivery after reconnect isn't broadcast twice.
+ * Keys are stored as 64-bit fingerprints in a fixed ring; a small
+ * open-addressed table over the ring makes lookups O(1). Memory never grows
+ * past what the constructor allocates.
+ */
+public class EventDedup {
+    private static final long EMPTY = 0L;
+
+    private final long[] ring;
+    private final long[] table;
+    private final int mask;
+    private int head;
+    private int size;
+
+    public EventDedup(int capacity) {
+        this.ring = new long[Math.max(1, capacity)];
+        int tableSize = Integer.highestOneBit(Math.max(2, ring.length * 2 - 1)) << 1;
+        this.table = new long[tableSize];
+        this.mask = tableSize - 1;
+    }
+
+    /**
+     * True the first time a key is seen within the window, false for a duplicate.
+     */
+    public synchronized boolean firstSeen(String key) {
+        long fingerprint = fingerprint(key);
+        if (indexOf(fingerprint) >= 0) return false;
+
+        if (size == ring.length) {
+            remove(ring[head]);
+        } else {
+            size++;
+        }
+        ring[head] = fingerprint;
+        head = (head + 1) % ring.length;
+        insert(fingerprint);
+        return true;
+    }
+
+    public static String key(String channel, String ts) {
+        return channel + ':' + ts;
+    }
+
+    private int indexOf(long fingerprint) {
+        int slot = slot(fingerprint);
+        while (table[slot] != EMPTY) {
+            if (table[slot] == fingerprint) return slot;
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void insert(long fingerprint) {
+        int slot = slot(fingerprint);
+        while (table[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = fingerprint;
+    }
+
+    // Backward-shift deletion, so the table never needs tombstones
+    private void remove(long fingerprint) {
+        int hole = indexOf(fingerprint);
+        if (hole < 0) return;
+        int slot = hole;
+        while (true) {
+            slot = (slot + 1) & mask;
+            long moved = table[slot];
+            if (moved == EMPTY) break;
+            int home = slot(moved);
+            boolean between = hole <= slot ? (hole < home && home <= slot) : (hole < home || home <= slot);
+            if (!between) {
+                table[hole] = moved;
+                hole = slot;
+            }
+        }
+        table[hole] = EMPTY;
+    }
+
+    private int slot(long fingerprint) {
+        return (int) (fingerprint ^ (fingerprint >>> 32)) & mask;
+    }
+
+    // 64-bit FNV-1a; 0 is reserved for empty slots
+    private static long fingerprint(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash == EMPTY ? 1L : hash;
+    }
+}
@@ -0,0 +1,108 @@
+package com.gamer_waves.slackbridge.inbound;
+
+import com.gamer_waves.slackbridge.SlackBridge;
+import net.minecraft.text.MutableText;
+import net.minecraft.text.Text;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded buffer between the Slack threads (many producers) and the server
+ * thread (the only consumer). Instead of one server task per Slack message,
+ * the server drains the buffer once per tick and broadcasts everything that
+ * arrived as a single multi-line message, capped at a number of characters
+ * per tick; the rest waits for the next tick. While the server is still
+ * starting the buffer simply fills up: it holds at most {@code capacity}
+ * messages (oldest dropped first) and anything older than {@code maxAgeMs}
+ * is discarded instead of shown. Backfilled messages are already old when
+ * they are submitted and are exempt from that age limit.
+ */
+public class InboundBroadcaster {
+    private record Pending(Text text, int length, String ts, long receivedAt, boolean expires) {}
+
+    private static final Text NEWLINE = Text.literal("\n");
+
+    private final ArrayBlockingQueue<Pending> buffer;
+    private final int maxCharsPerTick;
+    private final long maxAgeMs;
+    private final AtomicLong dropped = new AtomicLong(0);
+    private Pending carry;  // Consumer-only: didn't fit in the previous tick's budget
+    private volatile String deliveredTs;
+
+    public InboundBroadcaster(int capacity, int maxCharsPerTick, long maxAgeMs) {
+        this.buffer = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.maxCharsPerTick = Math.max(1, maxCharsPerTick);
+        this.maxAgeMs = maxAgeMs;
+    }
+
+    /**
+     * Queues a message for the next tick. Never blocks; when full, the oldest message is dropped.
+     *
+     * @param ts the Slack ts of the message, or null for lines that aren't a message of their own
+     */
+    public void submit(Text text, String ts) {
+        submit(text, ts, true);
+    }
+
+    /**
+     * @param expires false for backfill, which must be shown however long the server took to start
+     */
+    public void submit(Text text, String ts, boolean expires) {
+        Pending pending = new Pending(text, text.getString().length(), ts, System.currentTimeMillis(), expires);
+        while (!buffer.offer(pending)) {
+            if (buffer.poll() != null) recordDrop();
+        }
+    }
+
+    /**
+     * Called once per tick on the server thread. Returns the merged message to broadcast, or null if there is none.
+     */
+    public Text drain() {
+        long now = System.currentTimeMillis();
+        MutableText merged = null;
+        int chars = 0;
+
+        while (true) {
+            Pending next = carry != null ? carry : buffer.poll();
+            carry = null;
+            if (next == null) break;
+
+            if (next.expires() && maxAgeMs > 0 && now - next.receivedAt() > maxAgeMs) {
+                recordDrop();
+                if (next.ts() != null) deliveredTs = next.ts();
+                continue;
+            }
+            int length = next.length();
+            if (merged != null && chars + length > maxCharsPerTick) {
+                carry = next;
+                break;
+            }
+            if (next.ts() != null) deliveredTs = next.ts();
+
+            if (merged == null) {
+                merged = Text.empty();
+            } else {
+                merged.append(NEWLINE);
+            }
+            merged.append(next.text());
+            chars += length;
+        }
+
+        return merged;
+    }
+
+    /**
+     * The ts of the newest message drained so far (shown or dropped as stale), or null.
+     */
+    public String deliveredTs() {
+        return deliveredTs;
+    }
+
+    private void recordDrop() {
+        long total = dropped.incrementAndGet();
+        if (total == 1 || total % 100 == 0) {
+            SlackBridge.LOGGER.warn("Inbound Slack buffer overflowed or went stale, {} messages dropped so far", total);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.gamer_waves.slackbridge.inbound;
+
+import com.gamer_waves.slackbridge.SlackBridge;
+
+import java.util.PriorityQueue;
+import java.util.function.BiConsumer;
+
+/**
+ * Puts the messages of one channel back in Slack order. Bolt handles events on
+ * a thread pool and some of them take longer to render (a thread fetch, a user
+ * lookup), so each event takes a {@link Ticket} as soon as it arrives and
+ * completes it once its text is ready. Tickets are released in {@code ts}
+ * order, each held for {@code holdMs} after it arrived so a slightly earlier
+ * message still in flight can overtake it. A ticket that never completes is
+ * given up on after {@code maxWaitMs}, and at most {@code capacity} tickets
+ * are outstanding at once.
+ */
+public class InboundSequencer<T> {
+    public static final class Ticket<T> {
+        private final String rawTs;
+        private final long ts;
+        private final long seq;
+        private final long arrivedAt;
+        private T text;
+        private boolean done;
+        private boolean abandoned;
+
+        private Ticket(String rawTs, long ts, long seq, long arrivedAt) {
+            this.rawTs = rawTs;
+            this.ts = ts;
+            this.seq = seq;
+            this.arrivedAt = arrivedAt;
+        }
+    }
+
+    private final PriorityQueue<Ticket<T>> pending = new PriorityQueue<>((a, b) ->
+            a.ts != b.ts ? Long.compare(a.ts, b.ts) : Long.compare(a.seq, b.seq));
+    private final BiConsumer<String, T> sink; // (ts, message)
+    private final int capacity;
+    private final long holdMs;
+    private final long maxWaitMs;
+    private long nextSeq;
+    private long lastReleasedTs;
+
+    public InboundSequencer(int capacity, long holdMs, long maxWaitMs, BiConsumer<String, T> sink) {
+        this.capacity = Math.max(1, capacity);
+        this.holdMs = holdMs;
+        this.maxWaitMs = Math.max(holdMs, maxWaitMs);
+        this.sink = sink;
+    }
+
+    public synchronized Ticket<T> open(String ts) {
+        Ticket<T> ticket = new Ticket<>(ts, parseTs(ts), nextSeq++, System.currentTimeMillis());
+        if (ticket.ts < lastReleasedTs) {
+            SlackBridge.LOGGER.debug("Slack message {} arrived after a newer one was already shown", ts);
+        }
+        while (pending.size() >= capacity) {
+            releaseHead(pending.poll());
+        }
+        pending.add(ticket);
+        return ticket;
+    }
+
+    /**
+     * Hands over the rendered text; null means there is nothing to show.
+     */
+    public void complete(Ticket<T> ticket, T text) {
+        synchronized (this) {
+            ticket.text = text;
+            ticket.done = true;
+            if (!ticket.abandoned) {
+                releaseReady();
+                return;
+            }
+        }
+        // Gave up waiting on it: better late than never
+        if (text != null) sink.accept(ticket.rawTs, text);
+    }
+
+    /**
+     * Releases everything whose hold time has passed. Called from the server tick and on every completion.
+     */
+    public synchronized void releaseReady() {
+        long now = System.currentTimeMillis();
+        Ticket<T> head;
+        while ((head = pending.peek()) != null) {
+            long age = now - head.arrivedAt;
+            if (head.done ? age < holdMs : age < maxWaitMs) break;
+            releaseHead(pending.poll());
+        }
+    }
+
+    private void releaseHead(Ticket<T> head) {
+        if (!head.done) {
+            head.abandoned = true;
+            return;
+        }
+        lastReleasedTs = Math.max(lastReleasedTs, head.ts);
+        if (head.text != null) sink.accept(head.rawTs, head.text);
+    }
+
+    // "1712345678.123456" -> microseconds; unparseable values sort first
+    public static long parseTs(String ts) {
+        if (ts == null) return 0L;
+        int dot = ts.indexOf('.');
+        try {
+            if (dot < 0) return Long.parseLong(ts) * 1_000_000L;
+            long seconds = Long.parseLong(ts.substring(0, dot));
+            String fraction = (ts.substring(dot + 1) + "000000").substring(0, 6);
+            return seconds * 1_000_000L + Long.parseLong(fraction);
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+}
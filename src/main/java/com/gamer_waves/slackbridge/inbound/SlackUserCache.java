@@ -0,0 +1,57 @@
+package com.gamer_waves.slackbridge.inbound;
+
+import com.gamer_waves.slackbridge.util.LruCache;
+
+import java.util.function.Function;
+
+/**
+ * Slack user ID to display name, so rendering an inbound message normally
+ * costs no API calls. Entries are LRU-bounded and expire after a TTL; the
+ * cache is prewarmed from users.list and updated from user_change events.
+ */
+public class SlackUserCache {
+    private final LruCache<String, String> names;
+    private final Function<String, String> loader;
+
+    /**
+     * @param loader fetches a display name from Slack on a miss, or returns null if it can't
+     */
+    public SlackUserCache(int maxEntries, long ttlMs, Function<String, String> loader) {
+        this.names = new LruCache<>(maxEntries, ttlMs, false);
+        this.loader = loader;
+    }
+
+    /**
+     * Returns the cached name, loading it on a miss. Falls back to the raw ID if Slack can't be asked.
+     */
+    public String getDisplayName(String userId) {
+        if (userId == null || userId.isBlank()) return userId;
+
+        String name = names.get(userId);
+        if (name != null) return name;
+
+        name = loader.apply(userId);
+        if (name == null) return userId;
+        names.put(userId, name);
+        return name;
+    }
+
+    /**
+     * Cached name only; never calls Slack.
+     */
+    public String getIfPresent(String userId) {
+        return userId == null ? null : names.get(userId);
+    }
+
+    public void update(String userId, String displayName) {
+        if (userId == null || displayName == null) return;
+        names.put(userId, displayName);
+    }
+
+    /**
+     * Drops expired names; called periodically so users who stopped talking don't hold memory until evicted.
+     */
+    public void purgeExpired() {
+        names.purgeExpired();
+    }
+}
@@ -0,0 +1,75 @@
+package com.gamer_waves.slackbridge.inbound;
+
+import com.gamer_waves.slackbridge.chat.MrkdwnConverter;
+import com.gamer_waves.slackbridge.util.LruCache;
+import net.minecraft.text.MutableText;
+import net.minecraft.text.Text;
+
+/**
+ * What we already know about recent Slack threads, keyed by the parent's
+ * {@code ts}. Lets a new reply be shown against its cached parent instead of
+ * refetching and rebroadcasting the whole thread. Bounded in size, and
+ * threads nobody has touched for a while are evicted.
+ */
+public class ThreadCache {
+    private static final int PARENT_PREVIEW_CHARS = 100;
+
+    public record ThreadState(String parentName, String parentText, int replyCount) {
+
+        public ThreadState withReply() {
+            return new ThreadState(parentName, parentText, replyCount + 1);
+        }
+    }
+
+    private final LruCache<String, ThreadState> threads;
+
+    public ThreadCache(int maxThreads, long idleMs) {
+        this.threads = new LruCache<>(maxThreads, idleMs, true);
+    }
+
+    /**
+     * Evicts threads that have been idle too long; reads skip them already, this frees the memory.
+     */
+    public void purgeIdle() {
+        threads.purgeExpired();
+    }
+
+    /**
+     * Remembers a top-level message so the first reply to it is already a cache hit.
+     */
+    public void rememberParent(String ts, String name, String text, int replyCount) {
+        if (ts == null) return;
+        threads.put(ts, new ThreadState(name, text, replyCount));
+    }
+
+    /**
+     * Records a new reply and returns the updated state, or null if the thread isn't cached.
+     */
+    public ThreadState recordReply(String threadTs) {
+        synchronized (threads) {
+            ThreadState state = threads.get(threadTs);
+            if (state == null) return null;
+            ThreadState updated = state.withReply();
+            threads.put(threadTs, updated);
+            return updated;
+        }
+    }
+
+    /**
+     * Renders a reply under its parent: the parent line (shortened), how many replies came before, and the new reply.
+     */
+    public static MutableText renderDelta(ThreadState state, String replyName, Text reply, MrkdwnConverter.Resolver names) {
+        String parent = state.parentText() == null ? "" : state.parentText();
+        if (parent.length() > PARENT_PREVIEW_CHARS) {
+            parent = parent.substring(0, PARENT_PREVIEW_CHARS) + "…";
+        }
+
+        MutableText block = MrkdwnConverter.line("Γ [Slack] ", state.parentName(), MrkdwnConverter.toText(parent, names));
+        int earlier = state.replyCount() - 1;
+        if (earlier > 0) {
+            block.append("\n| (" + earlier + (earlier == 1 ? " earlier reply)" : " earlier replies)"));
+        }
+        block.append("\n").append(MrkdwnConverter.line("| [Reply] ", replyName, reply));
+        return block;
+    }
+}
@@ -0,0 +1,130 @@
+package com.gamer_waves.slackbridge.links;
+
+import java.security.SecureRandom;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pending /link codes, safe to use from the server thread and the Slack threads.
+ * <p>
+ * Each UUID has at most one live code; joining again reuses it instead of
+ * issuing another. New codes are checked against the live set, so two players
+ * never share a code. Expired codes are swept by a hashed timer wheel: every
+ * code sits in the bucket for the tick it expires on, and each tick only
+ * visits its own bucket. The store also has a hard cap on outstanding codes.
+ */
+public class LinkCodeStore {
+    private static final String ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+    private static final int CODE_LENGTH = 6;
+    private static final long TICK_MS = 1000;
+
+    public record LinkCode(String code, String uuid, String username, long expiresAt) {
+
+        public long secondsLeft() {
+            return Math.max(0, (expiresAt - System.currentTimeMillis()) / 1000);
+        }
+    }
+
+    private final long ttlMs;
+    private final int maxOutstanding;
+    private final Map<String, LinkCode> byCode = new ConcurrentHashMap<>();
+    private final Map<String, LinkCode> byUuid = new ConcurrentHashMap<>();
+    private final Queue<LinkCode>[] wheel;
+    private final SecureRandom random = new SecureRandom();
+    private final ScheduledExecutorService ticker;
+    private long lastTick;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public LinkCodeStore(long ttlMs, int maxOutstanding) {
+        this.ttlMs = ttlMs;
+        this.maxOutstanding = maxOutstanding;
+        // One full turn of the wheel spans more than the TTL, so a code is never seen before it expires
+        int slots = (int) (ttlMs / TICK_MS) + 2;
+        this.wheel = new Queue[slots];
+        for (int i = 0; i < slots; i++) {
+            wheel[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.lastTick = System.currentTimeMillis() / TICK_MS;
+        this.ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "SlackBridge-LinkCodes");
+            t.setDaemon(true);
+            return t;
+        });
+        ticker.scheduleAtFixedRate(this::advance, TICK_MS, TICK_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns the player's live code, or issues a new one. Returns null if too many codes are outstanding.
+     */
+    public LinkCode issue(String uuid, String username) {
+        LinkCode existing = byUuid.get(uuid);
+        if (existing != null && existing.expiresAt() > System.currentTimeMillis()) return existing;
+        if (byCode.size() >= maxOutstanding) return null;
+
+        return byUuid.compute(uuid, (key, current) -> {
+            long now = System.currentTimeMillis();
+            if (current != null && current.expiresAt() > now) return current;
+            if (current != null) byCode.remove(current.code(), current);
+
+            LinkCode fresh;
+            do {
+                fresh = new LinkCode(randomCode(), uuid, username, now + ttlMs);
+            } while (byCode.putIfAbsent(fresh.code(), fresh) != null);
+            wheel[slotFor(fresh.expiresAt())].add(fresh);
+            return fresh;
+        });
+    }
+
+    /**
+     * Consumes a code. Returns null if it doesn't exist or has expired.
+     */
+    public LinkCode redeem(String code) {
+        LinkCode linkCode = byCode.remove(code);
+        if (linkCode == null) return null;
+        byUuid.remove(linkCode.uuid(), linkCode);
+        return linkCode.expiresAt() > System.currentTimeMillis() ? linkCode : null;
+    }
+
+    private int slotFor(long expiresAt) {
+        long tick = (expiresAt + TICK_MS - 1) / TICK_MS;
+        return (int) (tick % wheel.length);
+    }
+
+    // Processes every tick up to now, so a late run catches up rather than skipping buckets
+    private void advance() {
+        long now = System.currentTimeMillis();
+        long currentTick = now / TICK_MS;
+        for (long tick = lastTick + 1; tick <= currentTick; tick++) {
+            Queue<LinkCode> bucket = wheel[(int) (tick % wheel.length)];
+            int pending = bucket.size();
+            for (int i = 0; i < pending; i++) {
+                LinkCode code = bucket.poll();
+                if (code == null) break;
+                if (code.expiresAt() > now) {
+                    bucket.add(code);
+                    continue;
+                }
+                byCode.remove(code.code(), code);
+                byUuid.remove(code.uuid(), code);
+            }
+        }
+        lastTick = currentTick;
+    }
+
+    private String randomCode() {
+        char[] chars = new char[CODE_LENGTH];
+        for (int i = 0; i < CODE_LENGTH; i++) {
+            chars[i] = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+        }
+        return new String(chars);
+    }
+
+    public void shutdown() {
+        ticker.shutdownNow();
+    }
+}
@@ -0,0 +1,256 @@
+package com.gamer_waves.slackbridge.links;
+
+import java.util.UUID;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.BiConsumer;
+
+/**
+ * Bidirectional Minecraft UUID to Slack user ID index.
+ * <p>
+ * UUIDs are stored as two {@code long}s in open-addressing arrays (no UUID or
+ * String key objects), and Slack IDs are interned. A second table maps each
+ * Slack ID back to its slot. Writes take a {@link StampedLock} write lock.
+ * Reads are optimistic: they run without locking and are only retried under
+ * a read lock if a write raced them, so lookups on the join path are O(1)
+ * and in practice never wait.
+ */
+public class LinkIndex {
+    private static final int OPTIMISTIC_ATTEMPTS = 3;
+    private static final int EMPTY = 0;
+    private static final int TOMBSTONE = -1;
+
+    private static final class Table {
+        final long[] msb;
+        final long[] lsb;
+        final String[] slackIds;   // null = empty, "" = removed
+        final int[] reverse;       // slot + 1, EMPTY or TOMBSTONE
+        final int mask;
+
+        Table(int capacity) {
+            msb = new long[capacity];
+            lsb = new long[capacity];
+            slackIds = new String[capacity];
+            reverse = new int[capacity];
+            mask = capacity - 1;
+        }
+    }
+
+    private final StampedLock lock = new StampedLock();
+    private volatile Table table = new Table(64);
+    private int size = 0;
+    private int forwardUsed = 0;
+    private int reverseUsed = 0;
+
+    public String getSlackId(UUID uuid) {
+        return getSlackId(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    public String getSlackId(long mostSig, long leastSig) {
+        for (int attempt = 0; attempt < OPTIMISTIC_ATTEMPTS; attempt++) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp == 0) continue;
+            String result;
+            try {
+                Table t = table;
+                int slot = findSlot(t, mostSig, leastSig);
+                result = slot >= 0 ? t.slackIds[slot] : null;
+            } catch (RuntimeException e) {
+                // Torn read during a write; validate() below fails and we retry
+                result = null;
+            }
+            if (lock.validate(stamp)) return result;
+        }
+
+        long stamp = lock.readLock();
+        try {
+            Table t = table;
+            int slot = findSlot(t, mostSig, leastSig);
+            return slot >= 0 ? t.slackIds[slot] : null;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public UUID getMcUuid(String slackId) {
+        for (int attempt = 0; attempt < OPTIMISTIC_ATTEMPTS; attempt++) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp == 0) continue;
+            UUID result;
+            try {
+                Table t = table;
+                int slot = findBySlackId(t, slackId);
+                result = slot >= 0 ? new UUID(t.msb[slot], t.lsb[slot]) : null;
+            } catch (RuntimeException e) {
+                result = null;
+            }
+            if (lock.validate(stamp)) return result;
+        }
+
+        long stamp = lock.readLock();
+        try {
+            Table t = table;
+            int slot = findBySlackId(t, slackId);
+            return slot >= 0 ? new UUID(t.msb[slot], t.lsb[slot]) : null;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Links the two accounts, replacing any existing link either of them had.
+     */
+    public void link(UUID uuid, String slackId) {
+        long mostSig = uuid.getMostSignificantBits();
+        long leastSig = uuid.getLeastSignificantBits();
+        String interned = slackId.intern();
+
+        long stamp = lock.writeLock();
+        try {
+            removeSlot(findSlot(table, mostSig, leastSig));
+            removeSlot(findBySlackId(table, interned));
+            ensureCapacity();
+
+            Table t = table;
+            int slot = spread(Long.hashCode(mostSig ^ leastSig)) & t.mask;
+            while (t.slackIds[slot] != null && !t.slackIds[slot].isEmpty()) {
+                slot = (slot + 1) & t.mask;
+            }
+            if (t.slackIds[slot] == null) forwardUsed++;
+            t.msb[slot] = mostSig;
+            t.lsb[slot] = leastSig;
+            t.slackIds[slot] = interned;
+            insertReverse(t, interned, slot);
+            size++;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes the link for this UUID and returns the Slack ID it had, or null.
+     */
+    public String unlink(UUID uuid) {
+        long stamp = lock.writeLock();
+        try {
+            int slot = findSlot(table, uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+            String slackId = slot >= 0 ? table.slackIds[slot] : null;
+            removeSlot(slot);
+            return slackId;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes the link for this Slack ID and returns the UUID it had, or null.
+     */
+    public UUID unlink(String slackId) {
+        long stamp = lock.writeLock();
+        try {
+            int slot = findBySlackId(table, slackId);
+            UUID uuid = slot >= 0 ? new UUID(table.msb[slot], table.lsb[slot]) : null;
+            removeSlot(slot);
+            return uuid;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void forEach(BiConsumer<UUID, String> action) {
+        long stamp = lock.readLock();
+        try {
+            Table t = table;
+            for (int i = 0; i < t.slackIds.length; i++) {
+                String slackId = t.slackIds[i];
+                if (slackId != null && !slackId.isEmpty()) {
+                    action.accept(new UUID(t.msb[i], t.lsb[i]), slackId);
+                }
+            }
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private static int findSlot(Table t, long mostSig, long leastSig) {
+        int slot = spread(Long.hashCode(mostSig ^ leastSig)) & t.mask;
+        for (int probes = 0; probes <= t.mask; probes++) {
+            String slackId = t.slackIds[slot];
+            if (slackId == null) return -1;
+            if (!slackId.isEmpty() && t.msb[slot] == mostSig && t.lsb[slot] == leastSig) return slot;
+            slot = (slot + 1) & t.mask;
+        }
+        return -1;
+    }
+
+    private static int findBySlackId(Table t, String slackId) {
+        int index = spread(slackId.hashCode()) & t.mask;
+        for (int probes = 0; probes <= t.mask; probes++) {
+            int entry = t.reverse[index];
+            if (entry == EMPTY) return -1;
+            if (entry != TOMBSTONE) {
+                String candidate = t.slackIds[entry - 1];
+                if (candidate != null && candidate.equals(slackId)) return entry - 1;
+            }
+            index = (index + 1) & t.mask;
+        }
+        return -1;
+    }
+
+    private void insertReverse(Table t, String slackId, int slot) {
+        int index = spread(slackId.hashCode()) & t.mask;
+        while (t.reverse[index] != EMPTY && t.reverse[index] != TOMBSTONE) {
+            index = (index + 1) & t.mask;
+        }
+        if (t.reverse[index] == EMPTY) reverseUsed++;
+        t.reverse[index] = slot + 1;
+    }
+
+    // Caller holds the write lock
+    private void removeSlot(int slot) {
+        if (slot < 0) return;
+        Table t = table;
+        String slackId = t.slackIds[slot];
+        int index = spread(slackId.hashCode()) & t.mask;
+        for (int probes = 0; probes <= t.mask; probes++) {
+            if (t.reverse[index] == slot + 1) {
+                t.reverse[index] = TOMBSTONE;
+                break;
+            }
+            if (t.reverse[index] == EMPTY) break;
+            index = (index + 1) & t.mask;
+        }
+        t.slackIds[slot] = "";
+        size--;
+    }
+
+    // Caller holds the write lock. Keeps both tables at most half full, counting tombstones.
+    private void ensureCapacity() {
+        Table old = table;
+        int capacity = old.slackIds.length;
+        if (Math.max(forwardUsed, reverseUsed) + 1 <= capacity / 2) return;
+
+        int newCapacity = (size + 1) * 4 > capacity ? capacity * 2 : capacity;
+        Table fresh = new Table(newCapacity);
+        forwardUsed = 0;
+        reverseUsed = 0;
+        for (int i = 0; i < capacity; i++) {
+            String slackId = old.slackIds[i];
+            if (slackId == null || slackId.isEmpty()) continue;
+            int slot = spread(Long.hashCode(old.msb[i] ^ old.lsb[i])) & fresh.mask;
+            while (fresh.slackIds[slot] != null) slot = (slot + 1) & fresh.mask;
+            fresh.msb[slot] = old.msb[i];
+            fresh.lsb[slot] = old.lsb[i];
+            fresh.slackIds[slot] = slackId;
+            forwardUsed++;
+            insertReverse(fresh, slackId, slot);
+        }
+        table = fresh;
+    }
+
+    private static int spread(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        return h;
+    }
+}
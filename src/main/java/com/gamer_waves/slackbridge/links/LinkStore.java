@@ -0,0 +1,291 @@
+package com.gamer_waves.slackbridge.links;
+
+import com.gamer_waves.slackbridge.SlackBridge;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persists a {@link LinkIndex} as a JSON snapshot plus an append-only journal.
+ * <p>
+ * Each change appends one line to the current journal, so a write costs the
+ * same however many links exist. Lines reach the OS immediately; fsync is
+ * batched on a short interval. In the background the index is compacted: the
+ * journal is rotated to a new generation, a snapshot is written to a temp file
+ * and atomically moved over the old one, and older journals are deleted. On
+ * startup the snapshot is loaded and every journal from its generation on is
+ * replayed. A torn last line from a crash is ignored.
+ */
+public class LinkStore implements Closeable {
+    private static final long FSYNC_INTERVAL_MS = 200;
+    private static final long COMPACT_INTERVAL_MS = 10 * 60_000;
+    private static final int COMPACT_AFTER_ENTRIES = 1000;
+    private static final long CLOSE_TIMEOUT_MS = 5000;
+    private static final String JOURNAL_PREFIX = ".journal.";
+
+    // On-disk shape of the snapshot (slackbridge_links.json)
+    private static class Snapshot {
+        public Map<String, String> mcUuidToSlackId = new HashMap<>();
+        public Map<String, String> slackIdToMcUuid = new HashMap<>();
+        public long journalGeneration = 0;
+    }
+
+    private final Path snapshotFile;
+    private final LinkIndex index;
+    private final ScheduledExecutorService executor;
+    private final Object compactLock = new Object();
+    private FileChannel journal;
+    private long generation;
+    private int entriesSinceCompaction = 0;
+    private boolean dirty = false;
+    private boolean compactionQueued = false;
+
+    private LinkStore(Path snapshotFile, LinkIndex index) {
+        this.snapshotFile = snapshotFile;
+        this.index = index;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "SlackBridge-LinkStore");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Loads the snapshot and journals into {@code index} and opens the journal for appending.
+     */
+    public static LinkStore open(Path snapshotFile, LinkIndex index) throws IOException {
+        Files.createDirectories(snapshotFile.toAbsolutePath().getParent());
+        LinkStore store = new LinkStore(snapshotFile, index);
+        store.load();
+        store.executor.scheduleWithFixedDelay(store::syncIfDirty, FSYNC_INTERVAL_MS, FSYNC_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        store.executor.scheduleWithFixedDelay(store::compactQuietly, COMPACT_INTERVAL_MS, COMPACT_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        return store;
+    }
+
+    public void recordLink(UUID uuid, String slackId) {
+        append("L " + uuid + " " + slackId + "\n");
+    }
+
+    public void recordUnlink(UUID uuid) {
+        append("U " + uuid + "\n");
+    }
+
+    public void recordUnlink(String slackId) {
+        append("S " + slackId + "\n");
+    }
+
+    private synchronized void append(String line) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) journal.write(buffer);
+            dirty = true;
+        } catch (IOException e) {
+            SlackBridge.LOGGER.error("Failed to write account link journal", e);
+        }
+        if (++entriesSinceCompaction >= COMPACT_AFTER_ENTRIES && !compactionQueued) {
+            compactionQueued = true;
+            executor.execute(this::compactQuietly);
+        }
+    }
+
+    private synchronized void syncIfDirty() {
+        if (!dirty) return;
+        try {
+            journal.force(false);
+            dirty = false;
+        } catch (IOException e) {
+            SlackBridge.LOGGER.debug("Failed to sync account link journal: {}", e.getMessage());
+        }
+    }
+
+    private void load() throws IOException {
+        long snapshotGeneration = 0;
+        if (Files.exists(snapshotFile)) {
+            try (Reader r = Files.newBufferedReader(snapshotFile)) {
+                Snapshot snapshot = new Gson().fromJson(r, Snapshot.class);
+                if (snapshot != null) {
+                    snapshotGeneration = snapshot.journalGeneration;
+                    if (snapshot.mcUuidToSlackId != null) {
+                        snapshot.mcUuidToSlackId.forEach((mcUuid, slackId) -> {
+                            try {
+                                index.link(UUID.fromString(mcUuid), slackId);
+                            } catch (IllegalArgumentException e) {
+                                SlackBridge.LOGGER.warn("Ignoring link with invalid UUID: {}", mcUuid);
+                            }
+                        });
+                    }
+                }
+            }
+        }
+
+        TreeMap<Long, Path> journals = listJournals();
+        generation = snapshotGeneration;
+        for (Map.Entry<Long, Path> entry : journals.entrySet()) {
+            if (entry.getKey() < snapshotGeneration) {
+                // Already folded into the snapshot; left over from an interrupted compaction
+                Files.deleteIfExists(entry.getValue());
+                continue;
+            }
+            entriesSinceCompaction += replay(entry.getValue());
+            generation = entry.getKey();
+        }
+
+        Path current = journalPath(generation);
+        journal = FileChannel.open(current, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        journal.truncate(validLength(current));
+        journal.position(journal.size());
+    }
+
+    private int replay(Path file) throws IOException {
+        String content = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        int applied = 0;
+        int start = 0;
+        int end;
+        // Only newline-terminated lines count; anything after the last newline is a torn write
+        while ((end = content.indexOf('\n', start)) >= 0) {
+            String[] parts = content.substring(start, end).split(" ");
+            start = end + 1;
+            try {
+                if (parts[0].equals("L") && parts.length == 3) {
+                    index.link(UUID.fromString(parts[1]), parts[2]);
+                } else if (parts[0].equals("U") && parts.length == 2) {
+                    index.unlink(UUID.fromString(parts[1]));
+                } else if (parts[0].equals("S") && parts.length == 2) {
+                    index.unlink(parts[1]);
+                } else {
+                    continue;
+                }
+                applied++;
+            } catch (IllegalArgumentException e) {
+                SlackBridge.LOGGER.warn("Skipping malformed account link journal entry in {}", file);
+            }
+        }
+        return applied;
+    }
+
+    private static long validLength(Path file) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        int end = bytes.length;
+        while (end > 0 && bytes[end - 1] != '\n') end--;
+        return end;
+    }
+
+    private void compactQuietly() {
+        try {
+            compact();
+        } catch (IOException e) {
+            SlackBridge.LOGGER.warn("Failed to compact account links: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Folds the journal into a fresh snapshot. Appends only wait for the journal
+     * rotation and the in-memory copy, not for the snapshot to be written.
+     */
+    public void compact() throws IOException {
+        synchronized (compactLock) {
+            compactLocked();
+        }
+    }
+
+    private void compactLocked() throws IOException {
+        Snapshot snapshot = new Snapshot();
+        long previousGeneration;
+        synchronized (this) {
+            compactionQueued = false;
+            if (entriesSinceCompaction == 0 && Files.exists(snapshotFile)) return;
+
+            // Rotate first: every change from here on lands in the new journal
+            journal.force(false);
+            journal.close();
+            previousGeneration = generation;
+            generation++;
+            journal = FileChannel.open(journalPath(generation), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+            entriesSinceCompaction = 0;
+            dirty = false;
+
+            snapshot.journalGeneration = generation;
+            index.forEach((uuid, slackId) -> {
+                snapshot.mcUuidToSlackId.put(uuid.toString(), slackId);
+                snapshot.slackIdToMcUuid.put(slackId, uuid.toString());
+            });
+        }
+
+        Path temp = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            Writer w = Channels.newWriter(channel, StandardCharsets.UTF_8);
+            new GsonBuilder().setPrettyPrinting().create().toJson(snapshot, w);
+            w.flush();
+            channel.force(true);
+        }
+        try {
+            Files.move(temp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, snapshotFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        for (Map.Entry<Long, Path> entry : listJournals().entrySet()) {
+            if (entry.getKey() <= previousGeneration) Files.deleteIfExists(entry.getValue());
+        }
+    }
+
+    private TreeMap<Long, Path> listJournals() throws IOException {
+        TreeMap<Long, Path> journals = new TreeMap<>();
+        String prefix = snapshotFile.getFileName() + JOURNAL_PREFIX;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(snapshotFile.toAbsolutePath().getParent(), prefix + "*")) {
+            for (Path file : stream) {
+                try {
+                    journals.put(Long.parseLong(file.getFileName().toString().substring(prefix.length())), file);
+                } catch (NumberFormatException e) {
+                    // Not one of ours
+                }
+            }
+        }
+        return journals;
+    }
+
+    private Path journalPath(long generation) {
+        return snapshotFile.resolveSibling(snapshotFile.getFileName() + JOURNAL_PREFIX + generation);
+    }
+
+    @Override
+    public void close() throws IOException {
+        // Let a running sync or compaction finish; interrupting it would close the channel under force() or the rename
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(CLOSE_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                SlackBridge.LOGGER.warn("Account link compaction still running after {} ms", CLOSE_TIMEOUT_MS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        compact();
+        synchronized (this) {
+            journal.force(false);
+            journal.close();
+        }
+    }
+}
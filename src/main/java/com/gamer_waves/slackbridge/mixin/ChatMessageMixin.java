@@ -7,6 +7,7 @@ import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 import com.gamer_waves.slackbridge.SlackBridge;
+import com.gamer_waves.slackbridge.chat.MrkdwnConverter;
 import net.minecraft.server.network.ServerPlayerEntity;
 import org.spongepowered.asm.mixin.Shadow;
 
@@ -18,16 +19,10 @@ public class ChatMessageMixin {
 
     @Inject(method = "handleDecoratedMessage", at = @At("HEAD"))
     private void onChatMessage(SignedMessage message, CallbackInfo ci) {
-        String playerName = player.getName().getString();
-        String uuid = player.getUuidAsString();
-        String messageText = message.getContent().getString();
+        String messageText = MrkdwnConverter.toMrkdwn(message.getContent());
 
         messageText = SlackBridge.processMcMentions(messageText);
 
-        SlackBridge.sendSlackMessageFromPlayer(
-            playerName,
-            uuid,
-            messageText
-        );
+        SlackBridge.sendChatFromPlayer(player, messageText);
     }
 }
@@ -19,6 +19,6 @@ public class PlayerEventsMixin {
         String uuid = player.getUuidAsString();
         Text deathMessage = damageSource.getDeathMessage(player);
         String message = deathMessage.getString();
-        SlackBridge.sendSlackMessageFromPlayer(name, uuid, message);
+        SlackBridge.recordPlayerDeath(name, uuid, message);
     }
 }
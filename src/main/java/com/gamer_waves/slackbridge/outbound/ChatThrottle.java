@@ -0,0 +1,44 @@
+package com.gamer_waves.slackbridge.outbound;
+
+import com.gamer_waves.slackbridge.util.TokenBucket;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-player burst limit for chat going to Slack, plus a cooldown so a
+ * throttled player is told about it without being spammed.
+ */
+public class ChatThrottle {
+    private static final long WARN_COOLDOWN_MS = 5000;
+
+    private final int burst;
+    private final double perSecond;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final Map<String, Long> lastWarned = new ConcurrentHashMap<>();
+
+    public ChatThrottle(int burst, int messagesPerMinute) {
+        this.burst = Math.max(1, burst);
+        this.perSecond = Math.max(1, messagesPerMinute) / 60d;
+    }
+
+    public boolean tryAcquire(String uuid) {
+        return buckets.computeIfAbsent(uuid, k -> new TokenBucket(burst, perSecond)).tryAcquire();
+    }
+
+    /**
+     * True at most once per cooldown period for each player.
+     */
+    public boolean shouldWarn(String uuid) {
+        long now = System.currentTimeMillis();
+        Long last = lastWarned.get(uuid);
+        if (last != null && now - last < WARN_COOLDOWN_MS) return false;
+        lastWarned.put(uuid, now);
+        return true;
+    }
+
+    public void forget(String uuid) {
+        buckets.remove(uuid);
+        lastWarned.remove(uuid);
+    }
+}
@@ -0,0 +1,137 @@
+package com.gamer_waves.slackbridge.outbound;
+
+import com.gamer_waves.slackbridge.SlackBridge;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the Slack connection. The Socket Mode session is checked on a fixed
+ * interval and reconnected with exponential backoff when it drops. When a Web
+ * API post fails, the supervisor marks Slack as unhealthy and probes it, with
+ * backoff, until it answers again. The {@link OutboundDispatcher} waits for
+ * {@link #awaitHealthy} before sending, so queued messages hold and are then
+ * replayed in order.
+ */
+public class ConnectionSupervisor {
+    private static final long SOCKET_CHECK_INTERVAL_MS = 15_000;
+    private static final long MIN_BACKOFF_MS = 1_000;
+    private static final long MAX_BACKOFF_MS = 5 * 60_000;
+
+    @FunctionalInterface
+    public interface Check {
+        boolean run() throws Exception;
+    }
+
+    private final Check webApiProbe;
+    private final Check socketAlive;
+    private final Check socketReconnect;
+    private final ScheduledExecutorService executor;
+    private final Object healthLock = new Object();
+    private volatile boolean healthy = true;
+    private long webBackoffMs = MIN_BACKOFF_MS;
+    private long socketBackoffMs = MIN_BACKOFF_MS;
+    private long nextSocketAttempt = 0;
+
+    public ConnectionSupervisor(Check webApiProbe, Check socketAlive, Check socketReconnect) {
+        this.webApiProbe = webApiProbe;
+        this.socketAlive = socketAlive;
+        this.socketReconnect = socketReconnect;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "SlackBridge-Supervisor");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public void start() {
+        executor.scheduleWithFixedDelay(this::checkSocket, SOCKET_CHECK_INTERVAL_MS, SOCKET_CHECK_INTERVAL_MS,
+            TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Waits up to {@code timeoutMs} for Slack to be reachable.
+     */
+    public boolean awaitHealthy(long timeoutMs) throws InterruptedException {
+        if (healthy) return true;
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        synchronized (healthLock) {
+            while (!healthy) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) return false;
+                healthLock.wait(remaining);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Called by the dispatcher when a post failed for a reason that might be transient.
+     */
+    public void reportFailure() {
+        synchronized (healthLock) {
+            if (!healthy) return;
+            healthy = false;
+            webBackoffMs = MIN_BACKOFF_MS;
+        }
+        SlackBridge.LOGGER.warn("Slack is unreachable, holding outbound messages until it recovers");
+        executor.schedule(this::probeWebApi, webBackoffMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void probeWebApi() {
+        boolean ok;
+        try {
+            ok = webApiProbe.run();
+        } catch (Exception e) {
+            ok = false;
+        }
+
+        if (ok) {
+            synchronized (healthLock) {
+                healthy = true;
+                healthLock.notifyAll();
+            }
+            SlackBridge.LOGGER.info("Slack is reachable again, replaying held messages");
+            return;
+        }
+
+        webBackoffMs = Math.min(MAX_BACKOFF_MS, webBackoffMs * 2);
+        executor.schedule(this::probeWebApi, jitter(webBackoffMs), TimeUnit.MILLISECONDS);
+    }
+
+    private void checkSocket() {
+        try {
+            if (socketAlive.run()) {
+                socketBackoffMs = MIN_BACKOFF_MS;
+                nextSocketAttempt = 0;
+                return;
+            }
+            long now = System.currentTimeMillis();
+            if (now < nextSocketAttempt) return;
+
+            SlackBridge.LOGGER.warn("Slack Socket Mode connection is down, reconnecting");
+            if (socketReconnect.run()) {
+                SlackBridge.LOGGER.info("Slack Socket Mode reconnected");
+                socketBackoffMs = MIN_BACKOFF_MS;
+                nextSocketAttempt = 0;
+                return;
+            }
+        } catch (Exception e) {
+            SlackBridge.LOGGER.debug("Socket Mode reconnect failed: {}", e.getMessage());
+        }
+        nextSocketAttempt = System.currentTimeMillis() + jitter(socketBackoffMs);
+        socketBackoffMs = Math.min(MAX_BACKOFF_MS, socketBackoffMs * 2);
+    }
+
+    private static long jitter(long delayMs) {
+        return delayMs / 2 + (long) (Math.random() * (delayMs / 2));
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+        synchronized (healthLock) {
+            healthLock.notifyAll();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.gamer_waves.slackbridge.outbound;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Round-robin queue keyed by player UUID: each poll serves the next player in
+ * rotation, so one player with a long backlog only delays their own messages.
+ * Not thread-safe; {@link OutboundDispatcher} guards it with its lock.
+ */
+class FairQueue {
+    private final Map<String, ArrayDeque<OutboundMessage>> perPlayer = new HashMap<>();
+    private final ArrayDeque<String> rotation = new ArrayDeque<>();
+    private int size = 0;
+
+    void add(OutboundMessage message) {
+        String key = keyOf(message);
+        ArrayDeque<OutboundMessage> queue = perPlayer.get(key);
+        if (queue == null) {
+            queue = new ArrayDeque<>();
+            perPlayer.put(key, queue);
+            rotation.addLast(key);
+        }
+        queue.addLast(message);
+        size++;
+    }
+
+    /**
+     * Puts a message back at the very front, for retrying a failed send.
+     */
+    void addFirst(OutboundMessage message) {
+        String key = keyOf(message);
+        ArrayDeque<OutboundMessage> queue = perPlayer.get(key);
+        if (queue == null) {
+            queue = new ArrayDeque<>();
+            perPlayer.put(key, queue);
+        } else {
+            rotation.remove(key);
+        }
+        rotation.addFirst(key);
+        queue.addFirst(message);
+        size++;
+    }
+
+    OutboundMessage poll() {
+        String key = rotation.pollFirst();
+        if (key == null) return null;
+
+        ArrayDeque<OutboundMessage> queue = perPlayer.get(key);
+        OutboundMessage message = queue.pollFirst();
+        size--;
+        if (queue.isEmpty()) {
+            perPlayer.remove(key);
+        } else {
+            rotation.addLast(key);
+        }
+        return message;
+    }
+
+    /**
+     * Drops the oldest message that was never persisted, from whichever player has the most of them queued,
+     * so overflow hits the flooder. Persisted messages are never evicted. Returns null if there is none.
+     */
+    OutboundMessage evictFromLargest() {
+        String largest = null;
+        int largestSize = 0;
+        for (Map.Entry<String, ArrayDeque<OutboundMessage>> entry : perPlayer.entrySet()) {
+            int unpersisted = 0;
+            for (OutboundMessage message : entry.getValue()) {
+                if (message.position() < 0) unpersisted++;
+            }
+            if (unpersisted > largestSize) {
+                largest = entry.getKey();
+                largestSize = unpersisted;
+            }
+        }
+        if (largest == null) return null;
+
+        ArrayDeque<OutboundMessage> queue = perPlayer.get(largest);
+        OutboundMessage evicted = null;
+        Iterator<OutboundMessage> it = queue.iterator();
+        while (it.hasNext()) {
+            OutboundMessage message = it.next();
+            if (message.position() < 0) {
+                evicted = message;
+                it.remove();
+                break;
+            }
+        }
+        size--;
+        if (queue.isEmpty()) {
+            perPlayer.remove(largest);
+            rotation.remove(largest);
+        }
+        return evicted;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private static String keyOf(OutboundMessage message) {
+        return message.uuid() != null ? message.uuid() : "";
+    }
+}
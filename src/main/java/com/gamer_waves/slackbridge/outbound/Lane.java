@@ -0,0 +1,11 @@
+package com.gamer_waves.slackbridge.outbound;
+
+/**
+ * Outbound priority lanes, highest priority first. When the posting budget is
+ * tight the dispatcher always serves the earliest non-empty lane.
+ */
+public enum Lane {
+    CHAT,
+    PRESENCE,
+    DEATH
+}
@@ -0,0 +1,21 @@
+package com.gamer_waves.slackbridge.outbound;
+
+/**
+ * Slack Web API rate limit tiers. POST_MESSAGE is chat.postMessage's special
+ * limit of roughly one message per second per channel.
+ */
+public enum MethodTier {
+    TIER_1(1, 1),
+    TIER_2(20, 5),
+    TIER_3(50, 10),
+    TIER_4(100, 20),
+    POST_MESSAGE(60, 4);
+
+    final int perMinute;
+    final int burst;
+
+    MethodTier(int perMinute, int burst) {
+        this.perMinute = perMinute;
+        this.burst = burst;
+    }
+}
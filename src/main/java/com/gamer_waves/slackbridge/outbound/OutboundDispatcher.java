@@ -0,0 +1,296 @@
+package com.gamer_waves.slackbridge.outbound;
+
+import com.gamer_waves.slackbridge.SlackBridge;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+
+/**
+ * Bounded queue between the server thread and Slack. Callers only enqueue;
+ * a single dispatcher thread drains the queue and performs the API calls.
+ * <p>
+ * Messages are kept in per-{@link Lane} queues. The dispatcher first waits for
+ * a chat.postMessage permit from the {@link SlackCallScheduler} and only then
+ * picks the highest-priority message, so chat jumps ahead of presence and
+ * death notices whenever the posting budget is tight. Within a lane, players
+ * are served round-robin by a {@link FairQueue}.
+ * <p>
+ * The sender returns false when a post failed for a possibly transient reason.
+ * The message then goes back to the front of its lane and the dispatcher
+ * pauses until the {@link ConnectionSupervisor} reports Slack healthy again.
+ * Every message that is delivered or permanently rejected is handed to
+ * {@code onFinished}.
+ * <p>
+ * When the queue is full, a message that is already persisted (it has an
+ * outbox position) is not lost: it is handed to {@code onOverflow} and stays
+ * on disk. From then on every new persisted message follows it there, and
+ * the queue is fed only by {@code refill}, in log order, whenever it is half
+ * empty, until the backlog on disk is drained; this keeps posts in the order
+ * they were sent. Persisted messages are never evicted. Only messages that
+ * were never persisted are dropped according to the {@link OverflowPolicy}.
+ */
+public class OutboundDispatcher {
+    private final Map<Lane, FairQueue> lanes = new EnumMap<>(Lane.class);
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final int capacity;
+    private final OverflowPolicy overflowPolicy;
+    private final long blockTimeoutMs;
+    private final SlackCallScheduler scheduler;
+    private final ConnectionSupervisor supervisor;
+    private final Predicate<OutboundMessage> sender;
+    private final Consumer<OutboundMessage> onFinished;
+    private final Consumer<OutboundMessage> onOverflow;
+    private final IntFunction<List<OutboundMessage>> refill;
+    private final AtomicLong dropped = new AtomicLong(0);
+    private final AtomicLong spilled = new AtomicLong(0);
+    private int size = 0;
+    // Persisted messages may be waiting on disk; unknown at startup, so the first refill finds out
+    private boolean backlog = true;
+    private volatile boolean running = false;
+    private Thread thread;
+
+    public OutboundDispatcher(int capacity, OverflowPolicy overflowPolicy, long blockTimeoutMs,
+                              SlackCallScheduler scheduler, ConnectionSupervisor supervisor,
+                              Predicate<OutboundMessage> sender, Consumer<OutboundMessage> onFinished,
+                              Consumer<OutboundMessage> onOverflow, IntFunction<List<OutboundMessage>> refill) {
+        for (Lane lane : Lane.values()) {
+            lanes.put(lane, new FairQueue());
+        }
+        this.capacity = Math.max(1, capacity);
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeoutMs = Math.max(0, blockTimeoutMs);
+        this.scheduler = scheduler;
+        this.supervisor = supervisor;
+        this.sender = sender;
+        this.onFinished = onFinished;
+        this.onOverflow = onOverflow;
+        this.refill = refill;
+    }
+
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        thread = new Thread(this::run, "SlackBridge-Outbound");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Queues a message without touching the network. Returns false if the
+     * message (or, for DROP_OLDEST, an older one) was dropped.
+     */
+    public boolean enqueue(OutboundMessage message) {
+        lock.lock();
+        try {
+            // Behind older messages still on disk, or no room: wait on disk too
+            if (message.position() >= 0 && (backlog || size >= capacity)) {
+                spill(message);
+                return true;
+            }
+            boolean droppedAny = false;
+            if (size >= capacity) {
+                switch (overflowPolicy) {
+                    case DROP_NEWEST:
+                        recordDrop();
+                        return false;
+                    case BLOCK:
+                        long remaining = TimeUnit.MILLISECONDS.toNanos(blockTimeoutMs);
+                        try {
+                            while (size >= capacity && remaining > 0) {
+                                remaining = notFull.awaitNanos(remaining);
+                            }
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        if (size >= capacity) {
+                            recordDrop();
+                            return false;
+                        }
+                        break;
+                    case DROP_OLDEST:
+                    default:
+                        // Evict from the lowest-priority lane first so chat survives longest
+                        while (size >= capacity && evictOldest()) {
+                            droppedAny = true;
+                        }
+                        if (size >= capacity) {
+                            // Everything queued is persisted and must keep its place
+                            recordDrop();
+                            return false;
+                        }
+                        break;
+                }
+            }
+            lanes.get(message.lane()).add(message);
+            size++;
+            notEmpty.signal();
+            return !droppedAny;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Only messages that were never persisted; a persisted one would lose its place in line
+    private boolean evictOldest() {
+        Lane[] order = Lane.values();
+        for (int i = order.length - 1; i >= 0; i--) {
+            OutboundMessage evicted = lanes.get(order[i]).evictFromLargest();
+            if (evicted != null) {
+                size--;
+                recordDrop();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Leaves a persisted message on disk for refill to read back in order
+    private void spill(OutboundMessage message) {
+        onOverflow.accept(message);
+        backlog = true;
+        long total = spilled.incrementAndGet();
+        if (total == 1 || total % 100 == 0) {
+            SlackBridge.LOGGER.warn("Outbound Slack queue is backed up, {} messages left waiting in the outbox so far", total);
+        }
+    }
+
+    private void recordDrop() {
+        long total = dropped.incrementAndGet();
+        if (total == 1 || total % 100 == 0) {
+            SlackBridge.LOGGER.warn("Outbound Slack queue is full ({} policy), {} messages dropped so far",
+                overflowPolicy, total);
+        }
+    }
+
+    // Runs on the dispatcher thread; reads messages waiting on disk back into the queue, oldest first
+    private void refillIfRoom() {
+        int free;
+        long spilledBefore;
+        lock.lock();
+        try {
+            if (!backlog || size > capacity / 2) return;
+            free = capacity - size;
+            spilledBefore = spilled.get();
+        } finally {
+            lock.unlock();
+        }
+        List<OutboundMessage> loaded = refill.apply(free);
+
+        lock.lock();
+        try {
+            // While there is a backlog, enqueue only adds to the disk, so these always fit
+            for (OutboundMessage message : loaded) {
+                lanes.get(message.lane()).add(message);
+                size++;
+            }
+            // A short page means the disk is drained, unless something was spilled while we were reading
+            if (loaded.size() < free && spilled.get() == spilledBefore) {
+                backlog = false;
+            }
+            if (!loaded.isEmpty()) notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private OutboundMessage pollHighestPriority() {
+        for (Lane lane : Lane.values()) {
+            OutboundMessage message = lanes.get(lane).poll();
+            if (message != null) {
+                size--;
+                notFull.signal();
+                return message;
+            }
+        }
+        return null;
+    }
+
+    private boolean awaitMessage() throws InterruptedException {
+        lock.lock();
+        try {
+            if (size == 0) notEmpty.await(500, TimeUnit.MILLISECONDS);
+            return size > 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void run() {
+        while (running || size() > 0) {
+            try {
+                refillIfRoom();
+                if (!awaitMessage()) continue;
+                if (!supervisor.awaitHealthy(500)) continue;
+
+                scheduler.acquire(MethodTier.POST_MESSAGE);
+
+                OutboundMessage message;
+                lock.lock();
+                try {
+                    message = pollHighestPriority();
+                } finally {
+                    lock.unlock();
+                }
+                if (message == null) continue;
+
+                if (sender.test(message)) {
+                    onFinished.accept(message);
+                } else {
+                    requeueFirst(message);
+                    supervisor.reportFailure();
+                }
+            } catch (InterruptedException e) {
+                break;
+            } catch (Exception e) {
+                SlackBridge.LOGGER.debug("Failed to send Slack message: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void requeueFirst(OutboundMessage message) {
+        lock.lock();
+        try {
+            lanes.get(message.lane()).addFirst(message);
+            size++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops accepting work and gives the dispatcher up to {@code timeoutMs} to flush what is queued.
+     */
+    public void shutdown(long timeoutMs) {
+        Thread t;
+        synchronized (this) {
+            running = false;
+            t = thread;
+        }
+        if (t == null) return;
+        try {
+            t.join(timeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        t.interrupt();
+    }
+
+    private int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.gamer_waves.slackbridge.outbound;
+
+/**
+ * Immutable Slack post queued by the server thread and sent later by {@link OutboundDispatcher}.
+ * {@code position} is the message's place in the {@link Outbox}, or -1 if it was never persisted.
+ */
+public record OutboundMessage(String username, String uuid, String text, Lane lane, long createdAt, long position) {
+
+    public static OutboundMessage of(String username, String uuid, String text, Lane lane) {
+        return new OutboundMessage(username, uuid, text, lane, System.currentTimeMillis(), -1);
+    }
+
+    public OutboundMessage withPosition(long position) {
+        return new OutboundMessage(username, uuid, text, lane, createdAt, position);
+    }
+}
@@ -0,0 +1,208 @@
+package com.gamer_waves.slackbridge.outbound;
+
+import com.gamer_waves.slackbridge.SlackBridge;
+import com.gamer_waves.slackbridge.storage.SegmentedLog;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Disk-backed outbox for Slack posts. Every message is appended to a
+ * {@link SegmentedLog} before it is queued, and acknowledged once it has been
+ * delivered or permanently rejected. Messages that do not fit in the
+ * in-memory queue stay here, unacknowledged, until {@link #refill} reads them
+ * back, so a long outage only costs disk space. The cursor only moves past a position
+ * when every message before it has been acknowledged; a message acknowledged
+ * out of order is flagged in place instead. Anything still pending after a
+ * crash or restart is paged back in its original order.
+ * Delivery is at-least-once: a crash between a post and its ack repeats that post.
+ */
+public class Outbox implements Closeable {
+    private static final int SEGMENT_SIZE = 1024 * 1024;
+    private static final int FORMAT_VERSION = 1;
+    private static final long FLUSH_INTERVAL_MS = 1000;
+    private static final int FLAG_ACKED = 1;
+
+    private final SegmentedLog log;
+    private final FileChannel cursorChannel;
+    private final TreeSet<Long> inFlight = new TreeSet<>();
+    // Unacknowledged entries that are not in the in-memory queue
+    private final TreeSet<Long> spilled = new TreeSet<>();
+    private long cursor;
+    private long lastFlush = 0;
+
+    private Outbox(SegmentedLog log, FileChannel cursorChannel, long cursor) {
+        this.log = log;
+        this.cursorChannel = cursorChannel;
+        this.cursor = cursor;
+    }
+
+    public static Outbox open(Path dir) throws IOException {
+        SegmentedLog log = new SegmentedLog(dir, SEGMENT_SIZE);
+        FileChannel cursorChannel = FileChannel.open(dir.resolve("cursor"),
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long cursor = 0;
+        if (cursorChannel.size() >= Long.BYTES) {
+            ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+            cursorChannel.read(buffer, 0);
+            cursor = buffer.flip().getLong();
+        }
+        return new Outbox(log, cursorChannel, Math.min(cursor, log.endPosition()));
+    }
+
+    /**
+     * Persists a message and returns a copy that carries its outbox position.
+     */
+    public synchronized OutboundMessage append(OutboundMessage message) throws IOException {
+        long position = log.append(encode(message));
+        inFlight.add(position);
+        return message.withPosition(position);
+    }
+
+    /**
+     * Marks everything written but not yet acknowledged as waiting on disk, for {@link #refill} to page back in.
+     * Meant to be called once, at startup. Returns how many messages are waiting.
+     */
+    public synchronized int recover() throws IOException {
+        log.read(cursor, (position, flags, payload) -> {
+            if ((flags & FLAG_ACKED) == 0) {
+                inFlight.add(position);
+                spilled.add(position);
+            }
+            return true;
+        });
+        return spilled.size();
+    }
+
+    /**
+     * A persisted message that did not fit in the in-memory queue; it stays unacknowledged until read back.
+     */
+    public synchronized void spill(OutboundMessage message) {
+        long position = message.position();
+        if (position >= 0 && inFlight.contains(position)) {
+            spilled.add(position);
+        }
+    }
+
+    /**
+     * Up to {@code max} messages that are waiting on disk, oldest first.
+     */
+    public synchronized List<OutboundMessage> refill(int max) {
+        List<OutboundMessage> result = new ArrayList<>();
+        if (spilled.isEmpty() || max <= 0) return result;
+
+        List<Long> unreadable = new ArrayList<>();
+        try {
+            log.read(spilled.first(), (position, flags, payload) -> {
+                if (!spilled.remove(position)) return true;
+                try {
+                    result.add(decode(payload).withPosition(position));
+                } catch (IOException | RuntimeException e) {
+                    SlackBridge.LOGGER.warn("Skipping unreadable outbox entry at {}", position);
+                    unreadable.add(position);
+                }
+                return result.size() < max && !spilled.isEmpty();
+            });
+        } catch (IOException e) {
+            SlackBridge.LOGGER.error("Failed to read Slack outbox", e);
+        }
+        // Acknowledged so they don't hold the cursor back forever
+        for (long position : unreadable) {
+            ack(position);
+        }
+        return result;
+    }
+
+    public synchronized void ack(OutboundMessage message) {
+        ack(message.position());
+    }
+
+    private void ack(long position) {
+        if (position < 0 || !inFlight.contains(position)) return;
+        spilled.remove(position);
+
+        if (position != inFlight.first()) {
+            inFlight.remove(position);
+            try {
+                log.setFlags(position, FLAG_ACKED);
+            } catch (IOException e) {
+                SlackBridge.LOGGER.debug("Failed to mark outbox entry {} as sent: {}", position, e.getMessage());
+            }
+            return;
+        }
+        inFlight.remove(position);
+
+        long next = inFlight.isEmpty() ? log.endPosition() : inFlight.first();
+        if (next <= cursor) return;
+        cursor = next;
+
+        try {
+            cursorChannel.write(ByteBuffer.allocate(Long.BYTES).putLong(0, cursor), 0);
+        } catch (IOException e) {
+            SlackBridge.LOGGER.debug("Failed to write outbox cursor: {}", e.getMessage());
+        }
+        log.deleteBefore(cursor);
+
+        long now = System.currentTimeMillis();
+        if (now - lastFlush >= FLUSH_INTERVAL_MS) {
+            lastFlush = now;
+            flush();
+        }
+    }
+
+    public synchronized void flush() {
+        log.flush();
+        try {
+            cursorChannel.force(false);
+        } catch (IOException e) {
+            SlackBridge.LOGGER.debug("Failed to sync outbox cursor: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        flush();
+        cursorChannel.close();
+        log.close();
+    }
+
+    private static byte[] encode(OutboundMessage message) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + message.text().length());
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(FORMAT_VERSION);
+        out.writeByte(message.lane().ordinal());
+        out.writeLong(message.createdAt());
+        out.writeUTF(message.username());
+        out.writeBoolean(message.uuid() != null);
+        if (message.uuid() != null) out.writeUTF(message.uuid());
+        byte[] text = message.text().getBytes(StandardCharsets.UTF_8);
+        out.writeInt(text.length);
+        out.write(text);
+        return bytes.toByteArray();
+    }
+
+    private static OutboundMessage decode(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        int version = in.readUnsignedByte();
+        if (version != FORMAT_VERSION) throw new IOException("Unknown outbox format " + version);
+        Lane lane = Lane.values()[in.readUnsignedByte()];
+        long createdAt = in.readLong();
+        String username = in.readUTF();
+        String uuid = in.readBoolean() ? in.readUTF() : null;
+        byte[] text = new byte[in.readInt()];
+        in.readFully(text);
+        return new OutboundMessage(username, uuid, new String(text, StandardCharsets.UTF_8), lane, createdAt, -1);
+    }
+}
@@ -0,0 +1,21 @@
+package com.gamer_waves.slackbridge.outbound;
+
+import java.util.Locale;
+
+/**
+ * What the outbound queue does when it is full (usually because Slack is slow or down).
+ */
+public enum OverflowPolicy {
+    DROP_OLDEST,
+    DROP_NEWEST,
+    BLOCK;
+
+    public static OverflowPolicy parse(String value) {
+        if (value == null || value.isBlank()) return DROP_OLDEST;
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return DROP_OLDEST;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.gamer_waves.slackbridge.outbound;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Collects join, leave and death events for a short window and turns them
+ * into a single Slack post. A join and a leave for the same player inside one
+ * window cancel out, so a quick reconnect produces no message at all.
+ */
+public class PresenceAggregator {
+    private static final String DIGEST_USERNAME = "Minecraft Server";
+    private static final int NAMES_SHOWN = 2;
+    private static final int DEATHS_SHOWN = 5;
+
+    private enum Change { JOINED, LEFT }
+
+    private record Pending(String name, String uuid, Change change) {}
+
+    private record Death(String name, String uuid, String message) {}
+
+    private final long windowMs;
+    private final Consumer<OutboundMessage> sink;
+    private final ScheduledExecutorService scheduler;
+    private final Map<String, Pending> presence = new LinkedHashMap<>();
+    private final List<Death> deaths = new ArrayList<>();
+    private boolean windowOpen = false;
+
+    public PresenceAggregator(long windowMs, Consumer<OutboundMessage> sink) {
+        this.windowMs = Math.max(0, windowMs);
+        this.sink = sink;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "SlackBridge-Presence");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public void playerJoined(String name, String uuid) {
+        recordPresence(name, uuid, Change.JOINED);
+    }
+
+    public void playerLeft(String name, String uuid) {
+        recordPresence(name, uuid, Change.LEFT);
+    }
+
+    public void playerDied(String name, String uuid, String message) {
+        if (windowMs == 0) {
+            sink.accept(OutboundMessage.of(name, uuid, message, Lane.DEATH));
+            return;
+        }
+        synchronized (this) {
+            deaths.add(new Death(name, uuid, message));
+            openWindow();
+        }
+    }
+
+    private void recordPresence(String name, String uuid, Change change) {
+        if (windowMs == 0) {
+            sink.accept(OutboundMessage.of(name, uuid, describe(change), Lane.PRESENCE));
+            return;
+        }
+        synchronized (this) {
+            Pending previous = presence.remove(uuid);
+            // Opposite changes inside one window cancel out
+            if (previous == null || previous.change() == change) {
+                presence.put(uuid, new Pending(name, uuid, change));
+            }
+            openWindow();
+        }
+    }
+
+    private void openWindow() {
+        if (windowOpen) return;
+        windowOpen = true;
+        scheduler.schedule(this::flush, windowMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Sends whatever has been collected so far. Called when the window closes and on shutdown.
+     */
+    public void flush() {
+        List<Pending> joined = new ArrayList<>();
+        List<Pending> left = new ArrayList<>();
+        List<Death> died;
+        synchronized (this) {
+            windowOpen = false;
+            for (Pending pending : presence.values()) {
+                (pending.change() == Change.JOINED ? joined : left).add(pending);
+            }
+            presence.clear();
+            died = new ArrayList<>(deaths);
+            deaths.clear();
+        }
+
+        int events = joined.size() + left.size() + died.size();
+        if (events == 0) return;
+
+        // A single event keeps the old look: posted as the player, with their avatar
+        if (events == 1) {
+            if (!died.isEmpty()) {
+                Death death = died.get(0);
+                sink.accept(OutboundMessage.of(death.name(), death.uuid(), death.message(), Lane.DEATH));
+            } else {
+                Pending pending = joined.isEmpty() ? left.get(0) : joined.get(0);
+                sink.accept(OutboundMessage.of(pending.name(), pending.uuid(), describe(pending.change()), Lane.PRESENCE));
+            }
+            return;
+        }
+
+        StringBuilder digest = new StringBuilder();
+        appendPresenceLine(digest, joined, Change.JOINED);
+        appendPresenceLine(digest, left, Change.LEFT);
+        for (int i = 0; i < died.size() && i < DEATHS_SHOWN; i++) {
+            if (digest.length() > 0) digest.append('\n');
+            digest.append(died.get(i).message());
+        }
+        if (died.size() > DEATHS_SHOWN) {
+            digest.append("\n...and ").append(died.size() - DEATHS_SHOWN).append(" more deaths");
+        }
+
+        sink.accept(OutboundMessage.of(DIGEST_USERNAME, null, digest.toString(), Lane.PRESENCE));
+    }
+
+    private static void appendPresenceLine(StringBuilder digest, List<Pending> players, Change change) {
+        if (players.isEmpty()) return;
+        if (digest.length() > 0) digest.append('\n');
+
+        int shown = players.size() <= NAMES_SHOWN + 1 ? players.size() : NAMES_SHOWN;
+        for (int i = 0; i < shown; i++) {
+            if (i > 0) digest.append(i == players.size() - 1 ? " and " : ", ");
+            digest.append(players.get(i).name());
+        }
+        int others = players.size() - shown;
+        if (others > 0) {
+            digest.append(" and ").append(others).append(others == 1 ? " other" : " others");
+        }
+        digest.append(' ').append(change == Change.JOINED ? "joined" : "left");
+    }
+
+    private static String describe(Change change) {
+        return change == Change.JOINED ? "joined the game" : "left the game";
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+        flush();
+    }
+}
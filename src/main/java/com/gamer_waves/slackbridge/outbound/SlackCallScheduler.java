@@ -0,0 +1,101 @@
+package com.gamer_waves.slackbridge.outbound;
+
+import com.gamer_waves.slackbridge.SlackBridge;
+import com.gamer_waves.slackbridge.util.TokenBucket;
+import com.slack.api.methods.SlackApiException;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sits in front of {@code slackApp.client()}. Every call waits for a token from
+ * its method tier's bucket, and a 429 pauses the whole tier for the duration of
+ * the {@code Retry-After} header before the call is retried.
+ */
+public class SlackCallScheduler {
+    private static final int MAX_ATTEMPTS = 5;
+    private static final long DEFAULT_RETRY_AFTER_SECONDS = 1;
+
+    @FunctionalInterface
+    public interface SlackCall<T> {
+        T call() throws IOException, SlackApiException;
+    }
+
+    private final Map<MethodTier, TokenBucket> buckets = new EnumMap<>(MethodTier.class);
+    private final Map<MethodTier, Long> blockedUntil = new EnumMap<>(MethodTier.class);
+
+    public SlackCallScheduler() {
+        for (MethodTier tier : MethodTier.values()) {
+            buckets.put(tier, new TokenBucket(tier.burst, tier.perMinute / 60d));
+            blockedUntil.put(tier, 0L);
+        }
+    }
+
+    /**
+     * Blocks until a call in {@code tier} is allowed.
+     */
+    public void acquire(MethodTier tier) throws InterruptedException {
+        TokenBucket bucket = buckets.get(tier);
+        while (true) {
+            long retryWait = retryAfterRemainingMillis(tier);
+            if (retryWait > 0) {
+                Thread.sleep(retryWait);
+                continue;
+            }
+            if (bucket.tryAcquire()) return;
+            TimeUnit.NANOSECONDS.sleep(Math.max(1_000_000L, bucket.nanosUntilAvailable(1)));
+        }
+    }
+
+    /**
+     * Waits for a permit, then runs the call.
+     */
+    public <T> T call(MethodTier tier, SlackCall<T> call) throws IOException, SlackApiException, InterruptedException {
+        acquire(tier);
+        return execute(tier, call);
+    }
+
+    /**
+     * Runs a call whose first permit was already taken with {@link #acquire},
+     * retrying after {@code Retry-After} if Slack answers 429.
+     */
+    public <T> T execute(MethodTier tier, SlackCall<T> call) throws IOException, SlackApiException, InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return call.call();
+            } catch (SlackApiException e) {
+                if (e.getResponse() == null || e.getResponse().code() != 429 || attempt >= MAX_ATTEMPTS) throw e;
+                long seconds = parseRetryAfter(e.getResponse().header("Retry-After"));
+                onRateLimited(tier, seconds);
+                SlackBridge.LOGGER.warn("Slack rate limited {} calls, retrying in {}s", tier, seconds);
+                acquire(tier);
+            }
+        }
+    }
+
+    public void onRateLimited(MethodTier tier, long retryAfterSeconds) {
+        long until = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(Math.max(1, retryAfterSeconds));
+        synchronized (blockedUntil) {
+            if (until > blockedUntil.get(tier)) blockedUntil.put(tier, until);
+        }
+    }
+
+    private long retryAfterRemainingMillis(MethodTier tier) {
+        long until;
+        synchronized (blockedUntil) {
+            until = blockedUntil.get(tier);
+        }
+        return Math.max(0, until - System.currentTimeMillis());
+    }
+
+    private static long parseRetryAfter(String header) {
+        if (header == null) return DEFAULT_RETRY_AFTER_SECONDS;
+        try {
+            return Math.max(1, Long.parseLong(header.trim()));
+        } catch (NumberFormatException e) {
+            return DEFAULT_RETRY_AFTER_SECONDS;
+        }
+    }
+}
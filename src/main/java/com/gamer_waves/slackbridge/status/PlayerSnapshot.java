@@ -0,0 +1,57 @@
+package com.gamer_waves.slackbridge.status;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable copy of the online players, built on the server thread and read
+ * by the Slack command handlers, which must not touch live game state.
+ * {@code afkMinutes} is 0 for active players.
+ */
+public final class PlayerSnapshot {
+    public static final PlayerSnapshot EMPTY = new PlayerSnapshot(0, 0, List.of());
+
+    public record PlayerInfo(String name, String uuid, float health, float maxHealth, int foodLevel,
+                             int x, int y, int z, String world, String gameMode, int afkMinutes) {}
+
+    private final long version;
+    private final int maxPlayers;
+    private final List<PlayerInfo> players;
+    private final Map<String, PlayerInfo> byLowerName;
+
+    public PlayerSnapshot(long version, int maxPlayers, List<PlayerInfo> players) {
+        this.version = version;
+        this.maxPlayers = maxPlayers;
+        this.players = List.copyOf(players);
+        Map<String, PlayerInfo> index = new HashMap<>();
+        for (PlayerInfo player : this.players) {
+            index.put(player.name().toLowerCase(Locale.ROOT), player);
+        }
+        this.byLowerName = Map.copyOf(index);
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public int maxPlayers() {
+        return maxPlayers;
+    }
+
+    public List<PlayerInfo> players() {
+        return players;
+    }
+
+    public PlayerInfo find(String name) {
+        return byLowerName.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * True if nothing a command would show has changed, so the cached replies can stay.
+     */
+    public boolean sameAs(int otherMaxPlayers, List<PlayerInfo> otherPlayers) {
+        return maxPlayers == otherMaxPlayers && players.equals(otherPlayers);
+    }
+}
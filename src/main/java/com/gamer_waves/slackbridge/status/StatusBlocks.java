@@ -0,0 +1,113 @@
+package com.gamer_waves.slackbridge.status;
+
+import com.slack.api.model.block.LayoutBlock;
+import com.slack.api.model.block.SectionBlock;
+import com.slack.api.model.block.composition.MarkdownTextObject;
+import com.slack.api.model.block.element.ImageElement;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Block Kit replies for /list and /whois, built from the latest
+ * {@link PlayerSnapshot} and cached until a different snapshot is published.
+ * Any number of concurrent requests share one build.
+ */
+public class StatusBlocks {
+    private record CachedList(long version, List<LayoutBlock> blocks) {}
+
+    private volatile PlayerSnapshot snapshot = PlayerSnapshot.EMPTY;
+    private volatile CachedList listCache;
+    private final Map<String, List<LayoutBlock>> whoisCache = new ConcurrentHashMap<>();
+
+    /**
+     * Called from the server thread. Skips the swap (and keeps the caches) if nothing visible changed.
+     */
+    public void publish(int maxPlayers, List<PlayerSnapshot.PlayerInfo> players) {
+        PlayerSnapshot current = snapshot;
+        if (current.sameAs(maxPlayers, players)) return;
+        snapshot = new PlayerSnapshot(current.version() + 1, maxPlayers, players);
+        whoisCache.clear();
+    }
+
+    public List<LayoutBlock> listBlocks() {
+        PlayerSnapshot current = snapshot;
+        CachedList cached = listCache;
+        if (cached != null && cached.version() == current.version()) return cached.blocks();
+
+        List<LayoutBlock> blocks = new ArrayList<>();
+        blocks.add(SectionBlock.builder()
+                .text(MarkdownTextObject.builder()
+                        .text("*Players online: " + current.players().size() + "/" + current.maxPlayers() + "*")
+                        .build())
+                .build());
+
+        if (!current.players().isEmpty()) {
+            for (PlayerSnapshot.PlayerInfo player : current.players()) {
+                String avatarUrl = "https://cravatar.eu/avatar/" + player.uuid() + "/32";
+
+                blocks.add(SectionBlock.builder()
+                        .text(MarkdownTextObject.builder()
+                                .text(player.name())
+                                .build())
+                        .accessory(ImageElement.builder()
+                                .imageUrl(avatarUrl)
+                                .altText(player.name())
+                                .build())
+                        .build());
+            }
+        } else {
+            blocks.add(SectionBlock.builder()
+                    .text(MarkdownTextObject.builder()
+                            .text("_No players online_")
+                            .build())
+                    .build());
+        }
+
+        List<LayoutBlock> result = List.copyOf(blocks);
+        listCache = new CachedList(current.version(), result);
+        return result;
+    }
+
+    /**
+     * Returns the /whois reply for a player, or null if they aren't online.
+     */
+    public List<LayoutBlock> whoisBlocks(String playerName) {
+        PlayerSnapshot current = snapshot;
+        PlayerSnapshot.PlayerInfo player = current.find(playerName);
+        if (player == null) return null;
+        // Keyed by version too, so a reply built while a new snapshot is published can't go stale
+        String key = current.version() + ":" + player.name().toLowerCase(Locale.ROOT);
+        return whoisCache.computeIfAbsent(key, k -> buildWhois(player));
+    }
+
+    private static List<LayoutBlock> buildWhois(PlayerSnapshot.PlayerInfo player) {
+        String avatarUrl = "https://cravatar.eu/avatar/" + player.uuid() + "/64";
+        String location = String.format("X: %d, Y: %d, Z: %d", player.x(), player.y(), player.z());
+
+        String afkStatus = player.afkMinutes() > 0 ? "AFK (" + player.afkMinutes() + "m)" : "Active";
+
+        StringBuilder info = new StringBuilder();
+        info.append("*Player Info: ").append(player.name()).append("*\n\n");
+        info.append("• *Health:* ").append(String.format("%.1f/%.1f", player.health(), player.maxHealth())).append("\n");
+        info.append("• *Hunger:* ").append(player.foodLevel()).append("/20\n");
+        info.append("• *Game Mode:* ").append(player.gameMode()).append("\n");
+        info.append("• *Status:* ").append(afkStatus).append("\n");
+        info.append("• *World:* `").append(player.world()).append("`\n");
+        info.append("• *Location:* `").append(location).append("`\n");
+        info.append("• *UUID:* `").append(player.uuid()).append("`");
+
+        return List.of(SectionBlock.builder()
+                .text(MarkdownTextObject.builder()
+                        .text(info.toString())
+                        .build())
+                .accessory(ImageElement.builder()
+                        .imageUrl(avatarUrl)
+                        .altText(player.name())
+                        .build())
+                .build());
+    }
+}
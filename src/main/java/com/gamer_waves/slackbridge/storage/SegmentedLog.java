@@ -0,0 +1,248 @@
+package com.gamer_waves.slackbridge.storage;
+
+import com.gamer_waves.slackbridge.SlackBridge;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log split into fixed-size, memory-mapped segment files.
+ * <p>
+ * Every record is {@code [int length][int crc32][int flags][payload]}. The CRC
+ * covers the payload only, so callers can update a record's flags in place
+ * with {@link #setFlags}. A zero length marks the end of a segment (files are
+ * preallocated, so unused space reads as zeros).
+ * Positions are logical: segment {@code n} covers {@code [n * segmentSize, (n + 1) * segmentSize)},
+ * and its file is named after its base position.
+ */
+public class SegmentedLog implements Closeable {
+    private static final String SUFFIX = ".seg";
+    private static final int HEADER_BYTES = 12;
+
+    /**
+     * Receives records in log order. Return false to stop reading.
+     */
+    @FunctionalInterface
+    public interface RecordVisitor {
+        boolean visit(long position, int flags, byte[] payload);
+    }
+
+    private final Path dir;
+    private final int segmentSize;
+    private final TreeMap<Long, Path> segments = new TreeMap<>();
+    private FileChannel activeChannel;
+    private MappedByteBuffer active;
+    private long activeBase;
+    private int activeOffset;
+
+    public SegmentedLog(Path dir, int segmentSize) throws IOException {
+        this.dir = dir;
+        this.segmentSize = segmentSize;
+        Files.createDirectories(dir);
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "*" + SUFFIX)) {
+            for (Path file : stream) {
+                String name = file.getFileName().toString();
+                try {
+                    segments.put(Long.parseLong(name.substring(0, name.length() - SUFFIX.length())), file);
+                } catch (NumberFormatException e) {
+                    SlackBridge.LOGGER.warn("Ignoring unexpected file in {}: {}", dir, name);
+                }
+            }
+        }
+
+        if (segments.isEmpty()) {
+            openActive(0);
+        } else {
+            openActive(segments.lastKey());
+            activeOffset = recoverEnd(active);
+        }
+    }
+
+    private void openActive(long base) throws IOException {
+        Path file = dir.resolve(String.format("%020d%s", base, SUFFIX));
+        activeChannel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        active = activeChannel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        activeBase = base;
+        activeOffset = 0;
+        segments.put(base, file);
+    }
+
+    // Finds the end of the valid data, zeroing anything after a torn or corrupt record
+    private int recoverEnd(ByteBuffer segment) {
+        int offset = 0;
+        while (offset + HEADER_BYTES <= segmentSize) {
+            int length = segment.getInt(offset);
+            if (length <= 0 || offset + HEADER_BYTES + length > segmentSize) break;
+            if (crc(segment, offset + HEADER_BYTES, length) != segment.getInt(offset + 4)) {
+                SlackBridge.LOGGER.warn("Discarding corrupt tail of {} at offset {}", dir, offset);
+                for (int i = offset; i < segmentSize; i++) segment.put(i, (byte) 0);
+                break;
+            }
+            offset += HEADER_BYTES + length;
+        }
+        return offset;
+    }
+
+    /**
+     * Appends a record and returns its position. The write lands in the page
+     * cache immediately; call {@link #flush} to force it to disk.
+     */
+    public synchronized long append(byte[] payload) throws IOException {
+        int needed = HEADER_BYTES + payload.length;
+        if (needed > segmentSize) {
+            throw new IllegalArgumentException("Record of " + payload.length + " bytes does not fit in a segment");
+        }
+        if (activeOffset + needed > segmentSize) {
+            roll();
+        }
+
+        long position = activeBase + activeOffset;
+        active.position(activeOffset + HEADER_BYTES);
+        active.put(payload);
+        active.putInt(activeOffset + 4, crc(active, activeOffset + HEADER_BYTES, payload.length));
+        active.putInt(activeOffset + 8, 0);
+        // Length goes last so a reader never sees a half-written record
+        active.putInt(activeOffset, payload.length);
+        activeOffset += needed;
+        return position;
+    }
+
+    private void roll() throws IOException {
+        active.force();
+        activeChannel.close();
+        openActive(activeBase + segmentSize);
+    }
+
+    /**
+     * Position of the oldest segment still on disk; every record before it has been deleted.
+     */
+    public synchronized long startPosition() {
+        return segments.firstKey();
+    }
+
+    public synchronized long endPosition() {
+        return activeBase + activeOffset;
+    }
+
+    /**
+     * Visits every record at or after {@code from}, oldest first.
+     */
+    public synchronized void read(long from, RecordVisitor visitor) throws IOException {
+        long firstBase = from - Math.floorMod(from, (long) segmentSize);
+        for (Map.Entry<Long, Path> entry : segments.tailMap(firstBase, true).entrySet()) {
+            long base = entry.getKey();
+            ByteBuffer segment = map(base, entry.getValue());
+            int limit = base == activeBase ? activeOffset : segment.capacity();
+
+            int offset = 0;
+            while (offset + HEADER_BYTES <= limit) {
+                int length = segment.getInt(offset);
+                if (length <= 0 || offset + HEADER_BYTES + length > limit) break;
+                if (base + offset >= from) {
+                    byte[] payload = new byte[length];
+                    segment.get(offset + HEADER_BYTES, payload);
+                    if (!visitor.visit(base + offset, segment.getInt(offset + 8), payload)) return;
+                }
+                offset += HEADER_BYTES + length;
+            }
+        }
+    }
+
+    /**
+     * Visits the records at the given positions, oldest first, mapping each segment at most once.
+     * Positions in deleted segments are skipped.
+     */
+    public synchronized void readAt(long[] positions, RecordVisitor visitor) throws IOException {
+        long[] sorted = positions.clone();
+        Arrays.sort(sorted);
+        long mappedBase = -1;
+        ByteBuffer segment = null;
+        int limit = 0;
+        for (long position : sorted) {
+            long base = position - Math.floorMod(position, (long) segmentSize);
+            if (base != mappedBase) {
+                mappedBase = base;
+                Path file = segments.get(base);
+                segment = file != null ? map(base, file) : null;
+                limit = segment == null ? 0 : base == activeBase ? activeOffset : segment.capacity();
+            }
+            int offset = (int) (position - base);
+            if (segment == null || offset + HEADER_BYTES > limit) continue;
+            int length = segment.getInt(offset);
+            if (length <= 0 || offset + HEADER_BYTES + length > limit) continue;
+            byte[] payload = new byte[length];
+            segment.get(offset + HEADER_BYTES, payload);
+            if (!visitor.visit(position, segment.getInt(offset + 8), payload)) return;
+        }
+    }
+
+    private ByteBuffer map(long base, Path file) throws IOException {
+        if (base == activeBase) return active.duplicate();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * Overwrites the flags word of the record at {@code position}.
+     */
+    public synchronized void setFlags(long position, int flags) throws IOException {
+        long base = position - Math.floorMod(position, (long) segmentSize);
+        int offset = (int) (position - base);
+        if (base == activeBase) {
+            active.putInt(offset + 8, flags);
+            return;
+        }
+        Path file = segments.get(base);
+        if (file == null) return;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, flags), offset + 8);
+        }
+    }
+
+    /**
+     * Deletes whole segments that end at or before {@code position}.
+     */
+    public synchronized void deleteBefore(long position) {
+        var it = segments.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Long, Path> entry = it.next();
+            if (entry.getKey() == activeBase || entry.getKey() + segmentSize > position) break;
+            try {
+                Files.deleteIfExists(entry.getValue());
+                it.remove();
+            } catch (IOException e) {
+                // Still mapped somewhere (Windows); try again next time
+                break;
+            }
+        }
+    }
+
+    public synchronized void flush() {
+        active.force();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        active.force();
+        activeChannel.close();
+    }
+
+    private static int crc(ByteBuffer buffer, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(offset, length));
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,63 @@
+package com.gamer_waves.slackbridge.util;
+
+/**
+ * Concurrency limit that finds its own level (AIMD): it grows by about one
+ * per round trip while latency holds steady, and shrinks multiplicatively
+ * when responses start queueing (recent latency above twice the long-run
+ * average), time out, or are rate limited. Decreases happen at most once per
+ * round trip, so one burst of 429s from the same window halves it only once.
+ */
+public class AdaptiveLimit {
+    private final int min;
+    private final int max;
+    private double limit;
+    // Fast and slow moving averages; individual samples vary too much with response size to compare directly
+    private double recentLatencyNanos;
+    private double baselineLatencyNanos;
+    private long lastDecrease;
+
+    public AdaptiveLimit(int initial, int min, int max) {
+        this.min = Math.max(1, min);
+        this.max = Math.max(this.min, max);
+        this.limit = Math.max(this.min, Math.min(this.max, initial));
+    }
+
+    public synchronized int get() {
+        return (int) limit;
+    }
+
+    public synchronized void onSuccess(long latencyNanos) {
+        if (baselineLatencyNanos == 0) {
+            recentLatencyNanos = latencyNanos;
+            baselineLatencyNanos = latencyNanos;
+        }
+        recentLatencyNanos += (latencyNanos - recentLatencyNanos) / 8;
+        baselineLatencyNanos += (latencyNanos - baselineLatencyNanos) / 64;
+        if (recentLatencyNanos > 2 * baselineLatencyNanos) {
+            decrease(0.9);
+        } else {
+            limit = Math.min(max, limit + 1 / limit);
+        }
+    }
+
+    /**
+     * A timeout or connection failure.
+     */
+    public synchronized void onFailure() {
+        decrease(0.75);
+    }
+
+    /**
+     * A 429 (or 503) from the server.
+     */
+    public synchronized void onThrottled() {
+        decrease(0.5);
+    }
+
+    private void decrease(double factor) {
+        long now = System.nanoTime();
+        if (lastDecrease != 0 && now - lastDecrease < recentLatencyNanos) return;
+        lastDecrease = now;
+        limit = Math.max(min, limit * factor);
+    }
+}
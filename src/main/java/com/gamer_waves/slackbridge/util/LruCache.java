@@ -0,0 +1,75 @@
+package com.gamer_waves.slackbridge.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Size-bounded LRU map whose entries also expire after a fixed time, measured
+ * either from when they were written or from when they were last read.
+ * All methods are synchronized.
+ */
+public class LruCache<K, V> {
+    private static final class Entry<V> {
+        final V value;
+        long stamp;
+
+        Entry(V value, long stamp) {
+            this.value = value;
+            this.stamp = stamp;
+        }
+    }
+
+    private final int maxEntries;
+    private final long ttlMs;
+    private final boolean expireAfterAccess;
+    private final LinkedHashMap<K, Entry<V>> map;
+
+    public LruCache(int maxEntries, long ttlMs, boolean expireAfterAccess) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.ttlMs = ttlMs;
+        this.expireAfterAccess = expireAfterAccess;
+        this.map = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > LruCache.this.maxEntries;
+            }
+        };
+    }
+
+    public synchronized V get(K key) {
+        Entry<V> entry = map.get(key);
+        if (entry == null) return null;
+        long now = System.currentTimeMillis();
+        if (isExpired(entry, now)) {
+            map.remove(key);
+            return null;
+        }
+        if (expireAfterAccess) entry.stamp = now;
+        return entry.value;
+    }
+
+    public synchronized void put(K key, V value) {
+        map.put(key, new Entry<>(value, System.currentTimeMillis()));
+    }
+
+    /**
+     * Drops every expired entry. Reads already skip them; this just frees the memory sooner.
+     */
+    public synchronized int purgeExpired() {
+        long now = System.currentTimeMillis();
+        int removed = 0;
+        Iterator<Entry<V>> it = map.values().iterator();
+        while (it.hasNext()) {
+            if (isExpired(it.next(), now)) {
+                it.remove();
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    private boolean isExpired(Entry<V> entry, long now) {
+        return ttlMs > 0 && now - entry.stamp > ttlMs;
+    }
+}
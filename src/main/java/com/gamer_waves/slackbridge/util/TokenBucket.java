@@ -0,0 +1,45 @@
+package com.gamer_waves.slackbridge.util;
+
+/**
+ * Classic token bucket: holds up to {@code capacity} tokens and refills continuously.
+ */
+public class TokenBucket {
+    private final double capacity;
+    private final double refillPerNano;
+    private double tokens;
+    private long lastRefill;
+
+    public TokenBucket(double capacity, double refillPerSecond) {
+        this.capacity = Math.max(1, capacity);
+        this.refillPerNano = refillPerSecond / 1_000_000_000d;
+        this.tokens = this.capacity;
+        this.lastRefill = System.nanoTime();
+    }
+
+    public synchronized boolean tryAcquire() {
+        return tryAcquire(1);
+    }
+
+    public synchronized boolean tryAcquire(double amount) {
+        refill();
+        if (tokens < amount) return false;
+        tokens -= amount;
+        return true;
+    }
+
+    /**
+     * How long until {@code amount} tokens would be available, or 0 if they are available now.
+     */
+    public synchronized long nanosUntilAvailable(double amount) {
+        refill();
+        if (tokens >= amount) return 0;
+        if (refillPerNano <= 0) return Long.MAX_VALUE;
+        return (long) Math.ceil((Math.min(amount, capacity) - tokens) / refillPerNano);
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * refillPerNano);
+        lastRefill = now;
+    }
+}
@@ -0,0 +1,91 @@
+package com.gamer_waves.slackbridge.outbound;
+
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OutboundDispatcherTest {
+    private static final int CAPACITY = 4;
+    private static final int BACKED_UP = 8;
+    private static final int AFTER_OUTAGE = 2;
+
+    @TempDir
+    Path dir;
+
+    // Slack is down while the queue fills and spills to the outbox. Once it is back, more messages arrive while
+    // the spilled ones are still on disk; posts must still follow enqueue order
+    @ParameterizedTest
+    @EnumSource(OverflowPolicy.class)
+    void replaysSpilledMessagesInOrder(OverflowPolicy policy) throws Exception {
+        List<String> posted = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch outage = new CountDownLatch(1);
+        CountDownLatch firstPost = new CountDownLatch(1);
+
+        try (Outbox outbox = Outbox.open(dir)) {
+            outbox.recover();
+            OutboundDispatcher dispatcher = new OutboundDispatcher(
+                CAPACITY, policy, 0,
+                new SlackCallScheduler(),
+                new ConnectionSupervisor(() -> true, () -> true, () -> true),
+                message -> {
+                    firstPost.countDown();
+                    try {
+                        outage.await();
+                    } catch (InterruptedException e) {
+                        return false;
+                    }
+                    posted.add(message.text());
+                    return true;
+                },
+                outbox::ack,
+                outbox::spill,
+                outbox::refill
+            );
+            dispatcher.start();
+
+            List<String> sent = new ArrayList<>();
+            for (int i = 0; i < BACKED_UP; i++) {
+                send(dispatcher, outbox, sent);
+                // Hold the dispatcher in its first post so everything after it backs up
+                if (i == 0) assertTrue(firstPost.await(5, TimeUnit.SECONDS));
+            }
+
+            outage.countDown();
+            awaitPosted(posted, 2);
+            for (int i = 0; i < AFTER_OUTAGE; i++) {
+                send(dispatcher, outbox, sent);
+            }
+            awaitPosted(posted, sent.size());
+            dispatcher.shutdown(1000);
+
+            assertEquals(sent, posted);
+        }
+
+        try (Outbox reopened = Outbox.open(dir)) {
+            assertEquals(0, reopened.recover());
+        }
+    }
+
+    private static void send(OutboundDispatcher dispatcher, Outbox outbox, List<String> sent) throws Exception {
+        String text = "message " + sent.size();
+        sent.add(text);
+        assertTrue(dispatcher.enqueue(outbox.append(OutboundMessage.of("player", "uuid", text, Lane.CHAT))));
+    }
+
+    private static void awaitPosted(List<String> posted, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (posted.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}